@@ -0,0 +1,5 @@
+#!/bin/bash
+# Chạy một lần khi khởi tạo database chính: cho phép postgres-replica sao chép qua streaming replication.
+# Volume postgres-data đã có từ trước thì cần xóa (make down && docker volume rm ...) để script này được chạy.
+set -e
+echo "host replication all all md5" >> "$PGDATA/pg_hba.conf"
@@ -2,8 +2,13 @@ package org.minh.template;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Đăng nhập kiểm tra mật khẩu trong AuthServiceImpl (pool băm mật khẩu), request sau đó xác thực bằng JWT:
+// không cần user mặc định (mật khẩu sinh ngẫu nhiên) mà Spring Boot tạo khi không có AuthenticationManager.
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
+@EnableScheduling
 public class TemplateApplication {
 
     public static void main(String[] args) {
@@ -1,5 +1,12 @@
 package org.minh.template.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.minh.template.config.redis.JsonCodec;
+import org.minh.template.config.redis.JwtTokenBinaryCodec;
+import org.minh.template.config.redis.JwtTokenRedisSerializer;
+import org.minh.template.config.redis.SerializationFormat;
+import org.minh.template.config.redis.VersionedRedisSerializer;
+import org.minh.template.entity.JwtToken;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,8 +15,13 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 
 @Configuration
 public class RedisConfig {
@@ -28,6 +40,10 @@ public class RedisConfig {
     @Value("${spring.data.redis.timeout}")
     private String timeout;
 
+    // Định dạng ghi giá trị: binary | json | legacy (xem SerializationFormat). Đọc luôn hiểu cả 3 định dạng.
+    @Value("${app.redis.serialization.format:binary}")
+    private String serializationFormat;
+
     @Bean
     public LettuceConnectionFactory lettuceConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(); // Định nghĩa một bean trả về LettuceConnectionFactory, dùng để tạo kết nối tới Redis.
@@ -47,10 +63,54 @@ public class RedisConfig {
     @Bean
     // Bean này giúp thao tác (CRUD) với Redis một cách dễ dàng trong Spring Boot
     // Định nghĩa bean kiểu RedisTemplate với key là String, value là Object.
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                       ObjectMapper objectMapper) {
         RedisTemplate<String, Object> template = new RedisTemplate<>(); // Tạo mới một instance của RedisTemplate.
         template.setConnectionFactory(redisConnectionFactory); // Thiết lập factory kết nối Redis cho template, để nó có thể sử dụng kết nối này khi thực hiện các thao tác với Redis.
+        // Key là chuỗi; value dùng envelope có phiên bản: JwtToken ghi nhị phân, các kiểu khác ghi JSON (kèm @class),
+        // giá trị cũ (JDK serialization, mặc định trước đây của RedisTemplate) vẫn đọc được.
+        RedisSerializer<Object> valueSerializer = new VersionedRedisSerializer<>(format(), List.of(
+                new JwtTokenBinaryCodec(),
+                new JsonCodec<>(GenericJackson2JsonRedisSerializer.builder()
+                        .objectMapper(objectMapper.copy())
+                        .defaultTyping(true)
+                        .build(), value -> true)),
+                RedisSerializer.java());
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
 
         return template; // Trả về template đã cấu hình để sử dụng trong ứng dụng.
     }
-}
\ No newline at end of file
+
+    @Bean
+    // Template dùng riêng cho JwtSessionStore: key là String, value là JwtToken.
+    // Value dùng envelope có phiên bản (nhị phân, JSON dự phòng); phiên ghi trước đây bằng JSON không envelope vẫn đọc được.
+    public RedisTemplate<String, JwtToken> jwtSessionRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                                   ObjectMapper objectMapper) {
+        RedisTemplate<String, JwtToken> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        JwtTokenRedisSerializer json = new JwtTokenRedisSerializer(objectMapper);
+        template.setValueSerializer(new VersionedRedisSerializer<>(format(), List.of(
+                new JwtTokenBinaryCodec(),
+                new JsonCodec<>(json, JwtToken.class::isInstance)),
+                json));
+
+        return template;
+    }
+
+    @Bean
+    // Container lắng nghe các kênh Redis pub/sub (ví dụ: kênh invalidation của near cache phiên đăng nhập).
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+
+        return container;
+    }
+
+    private SerializationFormat format() {
+        return SerializationFormat.valueOf(serializationFormat.trim().toUpperCase(Locale.ROOT));
+    }
+}
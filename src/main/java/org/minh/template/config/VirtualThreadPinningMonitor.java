@@ -0,0 +1,118 @@
+package org.minh.template.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+// Khi chạy trên virtual thread (spring.threads.virtual.enabled): theo dõi sự kiện JFR jdk.VirtualThreadPinned ngay
+// trong process, tức các lần virtual thread bị ghim vào carrier thread (synchronized, native frame) lâu hơn ngưỡng.
+// Mỗi lần ghim được ghi vào timer jvm.threads.virtual.pinned, tag site = frame đầu tiên thuộc code của mình;
+// lần đầu gặp một site thì log WARN kèm các frame đầu của stack trace, các lần sau chỉ log DEBUG.
+public class VirtualThreadPinningMonitor {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private static final String APP_PACKAGE = "org.minh.template.";
+
+    private static final String OTHER_SITE = "other";
+
+    private final boolean enabled;
+
+    private final Duration threshold;
+
+    private final int stackDepth;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${spring.threads.virtual.enabled:false}") final boolean enabled,
+            @Value("${app.virtual-threads.pinned-threshold:20}") final long threshold,
+            @Value("${app.virtual-threads.stack-depth:8}") final int stackDepth,
+            final MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(threshold);
+        this.stackDepth = stackDepth;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("[VirtualThreads] Reporting carrier thread pinning longer than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR không có trong runtime (jlink tối giản) hoặc bị tắt: chỉ mất phần chẩn đoán
+            log.warn("[VirtualThreads] Pinning monitor disabled: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Record one pinning event: duration per call site, with the top frames logged the first time a site is seen.
+     *
+     * @param event RecordedEvent jdk.VirtualThreadPinned
+     */
+    void onPinned(final RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .orElse(OTHER_SITE);
+
+        Timer.builder("jvm.threads.virtual.pinned").tag("site", site)
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String trace = frames.stream().limit(stackDepth).map(this::format)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        if (reportedSites.add(site)) {
+            log.warn("[VirtualThreads] Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(),
+                    site, trace);
+        } else if (log.isDebugEnabled()) {
+            log.debug("[VirtualThreads] Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(),
+                    site, trace);
+        }
+    }
+
+    private String format(final RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -0,0 +1,42 @@
+package org.minh.template.config.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Buộc các kết nối read-only lấy trong một đoạn code đi vào database chính thay vì replica. Dùng cho những lần đọc
+ * mà kết quả được giữ lại lâu (nạp cache), để độ trễ của replica không bị lưu thành dữ liệu cũ.
+ * Chỉ có tác dụng với kết nối lấy lần đầu bên trong đoạn code; transaction đã có kết nối thì giữ nguyên kết nối đó.
+ */
+public final class DataSourceRouting {
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Run the action with read-only connections routed to the primary database.
+     *
+     * @param action Supplier
+     * @param <T>    result type
+     * @return T
+     */
+    public static <T> T primary(final Supplier<T> action) {
+        if (PRIMARY.get() != null) {
+            return action.get();
+        }
+
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    /**
+     * @return boolean true inside {@link #primary(Supplier)}
+     */
+    static boolean isPrimaryForced() {
+        return PRIMARY.get() != null;
+    }
+}
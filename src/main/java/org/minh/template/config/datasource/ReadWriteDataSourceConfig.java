@@ -0,0 +1,103 @@
+package org.minh.template.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.urls:}'.isBlank()")
+// Tách đọc/ghi khi có cấu hình replica (app.datasource.replica.urls, các JDBC URL cách nhau bởi dấu phẩy):
+// DataSource chính là một LazyConnectionDataSourceProxy, chỉ lấy kết nối thật ở câu lệnh đầu tiên, khi đã biết
+// transaction có read-only hay không. Transaction @Transactional(readOnly = true) lấy kết nối từ ReplicaDataSource,
+// còn lại đi vào database chính. Transaction không chạy câu lệnh nào (ví dụ cache hit) không chiếm kết nối nào.
+// Mỗi replica có pool Hikari riêng, chép cấu hình từ pool chính (spring.datasource.hikari) với pool-size riêng.
+public class ReadWriteDataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(StringUtils.hasText(properties.getName()) ? properties.getName() : "primary");
+
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.datasource.replica.read-your-writes-window:5000}") final long window,
+            @Value("${app.datasource.replica.read-your-writes-max-users:100000}") final long maxUsers
+    ) {
+        return new ReadYourWritesTracker(Duration.ofMillis(window), maxUsers);
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(
+            @Value("${app.datasource.replica.urls}") final List<String> urls,
+            @Value("${app.datasource.replica.username:}") final String username,
+            @Value("${app.datasource.replica.password:}") final String password,
+            @Value("${app.datasource.replica.pool-size:0}") final int poolSize,
+            @Value("${app.datasource.replica.connection-timeout:1000}") final long connectionTimeout,
+            @Value("${app.datasource.replica.lag-query:}") final String lagQuery,
+            @Value("${app.datasource.replica.max-lag:5000}") final long maxLag,
+            @Value("${app.datasource.replica.health-check-interval:5000}") final long healthCheckInterval,
+            @Qualifier("primaryDataSource") final HikariDataSource primaryDataSource,
+            final ReadYourWritesTracker readYourWritesTracker,
+            final MeterRegistry meterRegistry
+    ) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            if (StringUtils.hasText(username)) {
+                config.setUsername(username);
+                config.setPassword(password);
+            }
+            if (poolSize > 0) {
+                config.setMaximumPoolSize(poolSize);
+            }
+            // Chờ kết nối replica ngắn rồi chuyển sang replica khác / database chính; replica chưa chạy không chặn
+            // lúc khởi động.
+            config.setConnectionTimeout(connectionTimeout);
+            config.setInitializationFailTimeout(-1);
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+
+        return new ReplicaDataSource(primaryDataSource, replicas, readYourWritesTracker, lagQuery, maxLag,
+                healthCheckInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") final HikariDataSource primaryDataSource,
+            final ReplicaDataSource replicaDataSource
+    ) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+
+        return dataSource;
+    }
+}
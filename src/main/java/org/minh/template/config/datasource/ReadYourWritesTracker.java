@@ -0,0 +1,58 @@
+package org.minh.template.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.minh.template.security.JwtUserDetails;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Ghi nhớ các user vừa ghi vào database chính (transaction read-write do request của chính user đó commit) trong một
+ * khoảng ngắn; trong khoảng đó các lần đọc read-only của user này đi vào database chính, nên user luôn thấy thay đổi
+ * của mình dù replica còn trễ. Spring Boot tự gắn listener này vào transaction manager.
+ * Trạng thái nằm trong bộ nhớ của từng node: khoảng thời gian nên lớn hơn độ trễ thường gặp của replica, và nếu chạy
+ * nhiều node thì load balancer nên giữ user trên cùng node (hoặc chấp nhận đọc trễ tối đa app.datasource.replica.max-lag).
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+    private final Cache<String, Boolean> writers;
+
+    public ReadYourWritesTracker(final Duration window, final long maxSize) {
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public void afterCommit(final TransactionExecution transaction, final Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+
+        String userId = currentUserId();
+        if (userId != null) {
+            writers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return boolean true when the current user committed a write within the window
+     */
+    public boolean isSticky() {
+        String userId = currentUserId();
+        return userId != null && writers.getIfPresent(userId) != null;
+    }
+
+    private static String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtUserDetails principal) {
+            return principal.getId();
+        }
+
+        return null;
+    }
+}
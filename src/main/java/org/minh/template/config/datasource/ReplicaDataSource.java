@@ -0,0 +1,226 @@
+package org.minh.template.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Slf4j
+// DataSource cho kết nối read-only: lần lượt xoay vòng (round-robin) qua các replica đang khỏe. Đi vào database chính
+// khi: đang ở trong DataSourceRouting.primary, user hiện tại vừa ghi (ReadYourWritesTracker), hoặc không còn replica
+// nào dùng được. Replica bị loại khi không kết nối được tới database hoặc trễ quá max-lag, và được đưa lại bởi lần
+// kiểm tra sức khỏe định kỳ kế tiếp. Pool của replica chỉ bận hết kết nối thì replica đó bị bỏ qua ở lần này, không bị
+// loại. Kiểm tra sức khỏe chạy trên thread riêng, không chờ sau các tác vụ @Scheduled chậm khác.
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final String lagQuery;
+
+    private final long maxLag;
+
+    private final long healthCheckInterval;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> primaryRoutes;
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaDataSource(
+            final DataSource primary,
+            final List<HikariDataSource> replicas,
+            final ReadYourWritesTracker readYourWritesTracker,
+            final String lagQuery,
+            final long maxLag,
+            final long healthCheckInterval,
+            final MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.healthCheckInterval = healthCheckInterval;
+        this.replicas = replicas.stream()
+                .map(dataSource -> new Replica(dataSource, Counter.builder("datasource.read.routed")
+                        .tag("target", dataSource.getPoolName()).tag("reason", "replica")
+                        .description("Read-only connections by target database").register(meterRegistry)))
+                .toList();
+        this.primaryRoutes = List.of("forced", "read-your-writes", "unavailable").stream()
+                .collect(Collectors.toMap(reason -> reason, reason -> Counter.builder("datasource.read.routed")
+                        .tag("target", PRIMARY).tag("reason", reason)
+                        .description("Read-only connections by target database").register(meterRegistry)));
+
+        Gauge.builder("datasource.replicas.healthy", this.replicas,
+                        r -> r.stream().filter(Replica::isHealthy).count())
+                .description("Replicas currently used for read-only connections").register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String reason = DataSourceRouting.isPrimaryForced() ? "forced"
+                : readYourWritesTracker.isSticky() ? "read-your-writes" : null;
+        if (reason == null) {
+            int size = replicas.size();
+            int start = size == 0 ? 0 : Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.isHealthy()) {
+                    continue;
+                }
+
+                try {
+                    Connection connection = replica.dataSource().getConnection();
+                    replica.routed().increment();
+                    return connection;
+                } catch (SQLException e) {
+                    if (isConnectionFailure(e)) {
+                        markDown(replica, e.getMessage());
+                    }
+                }
+            }
+            reason = "unavailable";
+        }
+
+        primaryRoutes.get(reason).increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        throw new SQLException("ReplicaDataSource does not support custom credentials");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (replicas.isEmpty() || healthCheckInterval <= 0) {
+            return;
+        }
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+        healthChecker.scheduleWithFixedDelay(() -> {
+            try {
+                checkHealth();
+            } catch (RuntimeException e) {
+                // Lỗi lọt ra ngoài sẽ dừng mọi lần kiểm tra sau của scheduleWithFixedDelay.
+                log.warn("[DataSource] Replica health check failed: {}", e.getMessage());
+            }
+        }, healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check every replica: a valid connection and, when a lag query is configured, replication lag within max-lag.
+     * Replicas that pass are (re)enabled, the others are skipped until the next check.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection()) {
+                if (!connection.isValid(1)) {
+                    markDown(replica, "connection is not valid");
+                    continue;
+                }
+
+                long lag = lag(connection);
+                if (maxLag > 0 && lag > maxLag) {
+                    markDown(replica, "replication lag " + lag + " ms");
+                    continue;
+                }
+                if (!replica.isHealthy()) {
+                    log.info("[DataSource] Replica {} is back (lag {} ms)", replica.dataSource().getPoolName(), lag);
+                }
+                replica.setHealthy(true);
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    markDown(replica, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource().close());
+    }
+
+    /**
+     * Hikari hết thời gian chờ kết nối thì ném SQLTransientConnectionException; lỗi kết nối tới database (nếu có) nằm ở
+     * cause. Không có cause nghĩa là pool chỉ đang bận hết kết nối: replica vẫn khỏe, không loại nó.
+     */
+    private static boolean isConnectionFailure(final SQLException e) {
+        return !(e instanceof SQLTransientConnectionException) || e.getCause() != null;
+    }
+
+    private long lag(final Connection connection) throws SQLException {
+        if (!StringUtils.hasText(lagQuery)) {
+            return 0;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private void markDown(final Replica replica, final String cause) {
+        if (replica.isHealthy()) {
+            log.warn("[DataSource] Replica {} disabled: {}", replica.dataSource().getPoolName(), cause);
+        }
+        replica.setHealthy(false);
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+
+        private final Counter routed;
+
+        private volatile boolean healthy = true;
+
+        private Replica(final HikariDataSource dataSource, final Counter routed) {
+            this.dataSource = dataSource;
+            this.routed = routed;
+        }
+
+        private HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        private Counter routed() {
+            return routed;
+        }
+
+        private boolean isHealthy() {
+            return healthy;
+        }
+
+        private void setHealthy(final boolean healthy) {
+            this.healthy = healthy;
+        }
+    }
+}
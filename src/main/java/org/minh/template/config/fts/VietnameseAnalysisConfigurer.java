@@ -0,0 +1,53 @@
+package org.minh.template.config.fts;
+
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.ngram.EdgeNGramFilterFactory;
+import org.apache.lucene.analysis.pattern.PatternReplaceCharFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+// Analyzer cho tiếng Việt: bỏ dấu để "nguyen" tìm được "Nguyễn" và ngược lại.
+// - Dấu dạng tổ hợp (chữ cái + dấu riêng, NFD, thường gặp khi gõ trên macOS) bị xóa bằng char filter,
+//   dạng dựng sẵn (NFC) được ASCIIFolding đưa về chữ không dấu, kể cả đ -> d.
+// - vietnamese_prefix: thêm edge n-gram lúc index để gõ một phần đầu của từ ("ngu") đã tìm thấy;
+//   lúc tìm dùng analyzer vietnamese (không n-gram) để từ khóa không bị cắt nhỏ.
+// - phone: chỉ giữ chữ số, so khớp nguyên số điện thoại bất kể khoảng trắng, dấu chấm, gạch nối.
+public class VietnameseAnalysisConfigurer implements LuceneAnalysisConfigurer {
+    public static final String VIETNAMESE = "vietnamese";
+
+    public static final String VIETNAMESE_PREFIX = "vietnamese_prefix";
+
+    public static final String PHONE = "phone";
+
+    private static final String COMBINING_MARKS = "[\\u0300-\\u036f]";
+
+    @Override
+    public void configure(final LuceneAnalysisConfigurationContext context) {
+        context.analyzer(VIETNAMESE).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .charFilter(PatternReplaceCharFilterFactory.class)
+                .param("pattern", COMBINING_MARKS)
+                .param("replacement", "")
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class);
+
+        context.analyzer(VIETNAMESE_PREFIX).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .charFilter(PatternReplaceCharFilterFactory.class)
+                .param("pattern", COMBINING_MARKS)
+                .param("replacement", "")
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(EdgeNGramFilterFactory.class)
+                .param("minGramSize", "1")
+                .param("maxGramSize", "20")
+                .param("preserveOriginal", "true");
+
+        context.normalizer(PHONE).custom()
+                .charFilter(PatternReplaceCharFilterFactory.class)
+                .param("pattern", "[^0-9]")
+                .param("replacement", "");
+    }
+}
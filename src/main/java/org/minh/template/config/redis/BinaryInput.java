@@ -0,0 +1,79 @@
+package org.minh.template.config.redis;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// Đọc dữ liệu do BinaryOutput ghi. Đọc quá cuối mảng thì ném SerializationException thay vì trả dữ liệu rác.
+public final class BinaryInput {
+    private final byte[] buffer;
+
+    private int position;
+
+    public BinaryInput(final byte[] buffer, final int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public byte[] readBytes() {
+        int length = (int) readVarLong();
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+
+        return bytes;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new SerializationException("Malformed varint");
+    }
+
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+
+        return value;
+    }
+
+    public UUID readUuid() {
+        return new UUID(readLong(), readLong());
+    }
+
+    public String readString() {
+        int length = (int) readVarLong();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+
+        return value;
+    }
+
+    private void require(final int length) {
+        if (length < 0 || position + length > buffer.length) {
+            throw new SerializationException("Unexpected end of binary payload");
+        }
+    }
+}
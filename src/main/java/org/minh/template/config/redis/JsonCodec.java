@@ -0,0 +1,40 @@
+package org.minh.template.config.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.function.Predicate;
+
+// Codec JSON (codec id 2): bọc một RedisSerializer JSON có sẵn và ghi kết quả của nó vào envelope.
+// Dùng làm định dạng dự phòng cho kiểu không có codec nhị phân, hoặc khi cần đọc được dữ liệu bằng mắt (redis-cli).
+public final class JsonCodec<T> implements RedisCodec<T> {
+    public static final byte ID = 2;
+
+    private final RedisSerializer<T> delegate;
+
+    private final Predicate<Object> supports;
+
+    public JsonCodec(final RedisSerializer<T> delegate, final Predicate<Object> supports) {
+        this.delegate = delegate;
+        this.supports = supports;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public boolean supports(final Object value) {
+        return supports.test(value);
+    }
+
+    @Override
+    public void write(final T value, final BinaryOutput output) {
+        output.writeBytes(delegate.serialize(value));
+    }
+
+    @Override
+    public T read(final BinaryInput input) {
+        return delegate.deserialize(input.readBytes());
+    }
+}
@@ -0,0 +1,118 @@
+package org.minh.template.config.redis;
+
+import org.minh.template.entity.JwtToken;
+
+// Định dạng nhị phân của JwtToken (codec id 1).
+// Bố cục: varint bitmask các trường có giá trị, sau đó các trường theo đúng thứ tự bit.
+// Trường mới chỉ được thêm vào cuối với bit mới: bản đọc cũ dừng sau các trường nó biết, bản đọc mới thấy bit
+// không bật thì để null, nên không cần xóa dữ liệu khi nâng cấp.
+// Giống JwtTokenRedisSerializer, lưu thời điểm hết hạn tuyệt đối và trả về tokenTimeToLive còn lại khi đọc.
+public final class JwtTokenBinaryCodec implements RedisCodec<JwtToken> {
+    public static final byte ID = 1;
+
+    private static final int ID_BIT = 1;
+
+    private static final int USER_ID_BIT = 1 << 1;
+
+    private static final int TOKEN_BIT = 1 << 2;
+
+    private static final int REFRESH_TOKEN_BIT = 1 << 3;
+
+    private static final int REMEMBER_ME_BIT = 1 << 4;
+
+    private static final int REMEMBER_ME_VALUE_BIT = 1 << 5;
+
+    private static final int IP_ADDRESS_BIT = 1 << 6;
+
+    private static final int USER_AGENT_BIT = 1 << 7;
+
+    private static final int ISSUED_AT_BIT = 1 << 8;
+
+    private static final int EXPIRES_AT_BIT = 1 << 9;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public boolean supports(final Object value) {
+        return value instanceof JwtToken;
+    }
+
+    @Override
+    public void write(final JwtToken jwtToken, final BinaryOutput output) {
+        int mask = 0;
+        mask |= jwtToken.getId() != null ? ID_BIT : 0;
+        mask |= jwtToken.getUserId() != null ? USER_ID_BIT : 0;
+        mask |= jwtToken.getToken() != null ? TOKEN_BIT : 0;
+        mask |= jwtToken.getRefreshToken() != null ? REFRESH_TOKEN_BIT : 0;
+        mask |= jwtToken.getRememberMe() != null ? REMEMBER_ME_BIT : 0;
+        mask |= Boolean.TRUE.equals(jwtToken.getRememberMe()) ? REMEMBER_ME_VALUE_BIT : 0;
+        mask |= jwtToken.getIpAddress() != null ? IP_ADDRESS_BIT : 0;
+        mask |= jwtToken.getUserAgent() != null ? USER_AGENT_BIT : 0;
+        mask |= jwtToken.getIssuedAt() != null ? ISSUED_AT_BIT : 0;
+        mask |= jwtToken.getTokenTimeToLive() != null ? EXPIRES_AT_BIT : 0;
+
+        output.writeVarLong(mask);
+        if (jwtToken.getId() != null) {
+            output.writeUuid(jwtToken.getId());
+        }
+        if (jwtToken.getUserId() != null) {
+            output.writeUuid(jwtToken.getUserId());
+        }
+        if (jwtToken.getToken() != null) {
+            output.writeString(jwtToken.getToken());
+        }
+        if (jwtToken.getRefreshToken() != null) {
+            output.writeString(jwtToken.getRefreshToken());
+        }
+        if (jwtToken.getIpAddress() != null) {
+            output.writeString(jwtToken.getIpAddress());
+        }
+        if (jwtToken.getUserAgent() != null) {
+            output.writeString(jwtToken.getUserAgent());
+        }
+        if (jwtToken.getIssuedAt() != null) {
+            output.writeVarLong(jwtToken.getIssuedAt());
+        }
+        if (jwtToken.getTokenTimeToLive() != null) {
+            output.writeVarLong(System.currentTimeMillis() + jwtToken.getTokenTimeToLive());
+        }
+    }
+
+    @Override
+    public JwtToken read(final BinaryInput input) {
+        long mask = input.readVarLong();
+        JwtToken.JwtTokenBuilder builder = JwtToken.builder();
+        if ((mask & ID_BIT) != 0) {
+            builder.id(input.readUuid());
+        }
+        if ((mask & USER_ID_BIT) != 0) {
+            builder.userId(input.readUuid());
+        }
+        if ((mask & TOKEN_BIT) != 0) {
+            builder.token(input.readString());
+        }
+        if ((mask & REFRESH_TOKEN_BIT) != 0) {
+            builder.refreshToken(input.readString());
+        }
+        if ((mask & REMEMBER_ME_BIT) != 0) {
+            builder.rememberMe((mask & REMEMBER_ME_VALUE_BIT) != 0);
+        }
+        if ((mask & IP_ADDRESS_BIT) != 0) {
+            builder.ipAddress(input.readString());
+        }
+        if ((mask & USER_AGENT_BIT) != 0) {
+            builder.userAgent(input.readString());
+        }
+        if ((mask & ISSUED_AT_BIT) != 0) {
+            builder.issuedAt(input.readVarLong());
+        }
+        if ((mask & EXPIRES_AT_BIT) != 0) {
+            builder.tokenTimeToLive(Math.max(0, input.readVarLong() - System.currentTimeMillis()));
+        }
+
+        return builder.build();
+    }
+}
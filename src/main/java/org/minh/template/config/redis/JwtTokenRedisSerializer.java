@@ -0,0 +1,68 @@
+package org.minh.template.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.minh.template.entity.JwtToken;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.UUID;
+
+// Serializer cho giá trị phiên đăng nhập lưu trong JwtSessionStore.
+// Trên Redis lưu thời điểm hết hạn tuyệt đối (expiresAt), khi đọc ra thì tokenTimeToLive là thời gian sống còn lại (ms),
+// giống hành vi của @TimeToLive khi đọc qua Spring Data repository.
+public class JwtTokenRedisSerializer implements RedisSerializer<JwtToken> {
+    private final ObjectMapper objectMapper;
+
+    public JwtTokenRedisSerializer(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] serialize(final JwtToken jwtToken) throws SerializationException {
+        if (jwtToken == null) {
+            return null;
+        }
+
+        Long expiresAt = jwtToken.getTokenTimeToLive() != null
+                ? System.currentTimeMillis() + jwtToken.getTokenTimeToLive() : null;
+        try {
+            return objectMapper.writeValueAsBytes(new Payload(jwtToken.getId(), jwtToken.getUserId(),
+                    jwtToken.getToken(), jwtToken.getRefreshToken(), jwtToken.getRememberMe(),
+                    jwtToken.getIpAddress(), jwtToken.getUserAgent(), jwtToken.getIssuedAt(), expiresAt));
+        } catch (IOException e) {
+            throw new SerializationException("Could not write JwtToken", e);
+        }
+    }
+
+    @Override
+    public JwtToken deserialize(final byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            Payload payload = objectMapper.readValue(bytes, Payload.class);
+            Long timeToLive = payload.expiresAt() != null
+                    ? Math.max(0, payload.expiresAt() - System.currentTimeMillis()) : null;
+
+            return JwtToken.builder()
+                    .id(payload.id())
+                    .userId(payload.userId())
+                    .token(payload.token())
+                    .refreshToken(payload.refreshToken())
+                    .rememberMe(payload.rememberMe())
+                    .ipAddress(payload.ipAddress())
+                    .userAgent(payload.userAgent())
+                    .issuedAt(payload.issuedAt())
+                    .tokenTimeToLive(timeToLive)
+                    .build();
+        } catch (IOException e) {
+            throw new SerializationException("Could not read JwtToken", e);
+        }
+    }
+
+    private record Payload(UUID id, UUID userId, String token, String refreshToken, Boolean rememberMe,
+                           String ipAddress, String userAgent, Long issuedAt, Long expiresAt) {
+    }
+}
@@ -0,0 +1,13 @@
+package org.minh.template.config.redis;
+
+// Một định dạng giá trị trong VersionedRedisSerializer. Mỗi codec có id cố định (ghi vào envelope),
+// không bao giờ đổi ý nghĩa của một id đã dùng: đổi định dạng thì thêm codec với id mới.
+public interface RedisCodec<T> {
+    byte id();
+
+    boolean supports(Object value);
+
+    void write(T value, BinaryOutput output);
+
+    T read(BinaryInput input);
+}
@@ -0,0 +1,12 @@
+package org.minh.template.config.redis;
+
+// Định dạng ghi của VersionedRedisSerializer (app.redis.serialization.format). Đọc thì luôn hiểu cả 3.
+// Triển khai không cần xóa Redis: chạy LEGACY cho tới khi mọi node đã có bản đọc được envelope, rồi chuyển BINARY.
+public enum SerializationFormat {
+    // Envelope + codec nhị phân, kiểu không có codec nhị phân thì dùng JSON.
+    BINARY,
+    // Envelope + JSON.
+    JSON,
+    // Định dạng cũ không có envelope (JSON của JwtTokenRedisSerializer, JDK serialization cho redisTemplate).
+    LEGACY
+}
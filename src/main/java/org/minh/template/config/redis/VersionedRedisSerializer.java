@@ -0,0 +1,89 @@
+package org.minh.template.config.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+
+// Serializer có envelope để đổi định dạng giá trị trong Redis mà không phải xóa dữ liệu cũ.
+// Envelope: [MAGIC][codec id][payload của codec]. MAGIC (0xFE) không trùng byte đầu của JSON ('{', '"', '[')
+// hay JDK serialization (0xAC 0xED), nên giá trị không có envelope được đọc bằng serializer cũ (legacy).
+public class VersionedRedisSerializer<T> implements RedisSerializer<T> {
+    public static final byte MAGIC = (byte) 0xFE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final List<RedisCodec<? extends T>> writers;
+
+    private final RedisCodec<?>[] readers = new RedisCodec<?>[256];
+
+    private final RedisSerializer<T> legacy;
+
+    private final boolean writeLegacy;
+
+    /**
+     * Create a serializer.
+     *
+     * @param format  SerializationFormat format used for writes
+     * @param codecs  List of RedisCodec all codecs that can be read, in write preference order
+     * @param legacy  RedisSerializer for values written before envelopes existed
+     */
+    public VersionedRedisSerializer(final SerializationFormat format, final List<RedisCodec<? extends T>> codecs,
+                                    final RedisSerializer<T> legacy) {
+        for (RedisCodec<? extends T> codec : codecs) {
+            readers[codec.id() & 0xFF] = codec;
+        }
+        this.writers = switch (format) {
+            case BINARY -> codecs;
+            case JSON -> codecs.stream().filter(codec -> codec.id() == JsonCodec.ID).toList();
+            case LEGACY -> List.of();
+        };
+        this.writeLegacy = format == SerializationFormat.LEGACY;
+        this.legacy = legacy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(final T value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        if (writeLegacy) {
+            return legacy.serialize(value);
+        }
+
+        for (RedisCodec<? extends T> codec : writers) {
+            if (codec.supports(value)) {
+                BinaryOutput output = new BinaryOutput(INITIAL_CAPACITY);
+                output.writeByte(MAGIC);
+                output.writeByte(codec.id());
+                ((RedisCodec<T>) codec).write(value, output);
+
+                return output.toByteArray();
+            }
+        }
+
+        throw new SerializationException("No codec for " + value.getClass().getName());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(final byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacy.deserialize(bytes);
+        }
+        if (bytes.length < 2) {
+            throw new SerializationException("Truncated envelope");
+        }
+
+        RedisCodec<?> codec = readers[bytes[1] & 0xFF];
+        if (codec == null) {
+            throw new SerializationException("Unknown codec id " + (bytes[1] & 0xFF));
+        }
+
+        return (T) codec.read(new BinaryInput(bytes, 2));
+    }
+}
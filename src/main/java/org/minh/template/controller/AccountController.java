@@ -2,6 +2,7 @@ package org.minh.template.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,9 +13,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.minh.template.dto.request.user.UpdateUserRequest;
 import org.minh.template.dto.response.SingleResponse;
+import org.minh.template.dto.response.SuccessResponse;
+import org.minh.template.dto.response.auth.SessionResponse;
 import org.minh.template.dto.response.error.ErrorResponse;
 import org.minh.template.dto.response.user.UserResponse;
+import org.minh.template.security.JwtTokenProvider;
 import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.AuthService;
 import org.minh.template.service.user.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -22,6 +27,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 import static org.minh.template.util.Constants.SECURITY_SCHEME_NAME;
 
 @RestController
@@ -32,6 +39,10 @@ import static org.minh.template.util.Constants.SECURITY_SCHEME_NAME;
 public class AccountController {
     private final UserService userService;
 
+    private final AuthService authService;
+
+    private final JwtTokenProvider jwtTokenProvider;
+
     private final MessageSourceService messageSourceService;
 
     @GetMapping("/me")
@@ -104,4 +115,81 @@ public class AccountController {
     ) throws BindException {
         return ResponseEntity.ok(UserResponse.convert(userService.updateMe(request)));
     }
+
+    @GetMapping("/sessions")
+    @Operation(
+            summary = "List active sessions of the current user",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    array = @ArraySchema(schema = @Schema(implementation = SessionResponse.class))
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "Bad credentials",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<List<SessionResponse>>> sessions(
+            @Parameter(hidden = true)
+            @RequestHeader("Authorization") final String bearer
+    ) {
+        String currentToken = jwtTokenProvider.extractJwtFromBearerString(bearer);
+
+        return ResponseEntity.ok(
+                new SingleResponse<>(
+                        HttpStatus.OK.value(),
+                        "Successful operation",
+                        authService.getSessions(userService.getUser()).stream()
+                                .map(jwtToken -> SessionResponse.convert(jwtToken, currentToken))
+                                .toList()
+                )
+        );
+    }
+
+    @DeleteMapping("/sessions")
+    @Operation(
+            summary = "Logout from every device",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = SuccessResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "401",
+                            description = "Bad credentials",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<SuccessResponse>> logoutAll() {
+        authService.logoutAll(userService.getUser());
+
+        return ResponseEntity.ok(
+                new SingleResponse<>(
+                        HttpStatus.OK.value(),
+                        "Successful operation",
+                        SuccessResponse.builder()
+                                .message(messageSourceService.get("logout_successfully"))
+                                .build()
+                )
+        );
+    }
 }
@@ -23,10 +23,11 @@ import org.minh.template.service.user.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.minh.template.util.Constants.SECURITY_SCHEME_NAME;
 
 @RestController
@@ -68,22 +69,29 @@ public class AuthController {
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = DetailedErrorResponse.class)
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Password hashing queue is full, retry after the Retry-After header",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
                     )
             }
     )
-    public ResponseEntity<SingleResponse<TokenResponse>> login(
+    public CompletableFuture<ResponseEntity<SingleResponse<TokenResponse>>> login(
             @Parameter(description = "Request body to login", required = true)
             @RequestBody @Validated final LoginRequest request
     ) {
-        TokenResponse tokenResponse = authService.login(request.getEmail(), request.getPassword(), false);
-
-        return ResponseEntity.ok(
-                new SingleResponse<>(
-                        HttpStatus.OK.value(),
-                        "login_successful",
-                        tokenResponse
-                )
-        );
+        return authService.login(request.getEmail(), request.getPassword(), false)
+                .thenApply(tokenResponse -> ResponseEntity.ok(
+                        new SingleResponse<>(
+                                HttpStatus.OK.value(),
+                                "login_successful",
+                                tokenResponse
+                        )
+                ));
     }
 
     @PostMapping("/register")
@@ -105,22 +113,33 @@ public class AuthController {
                                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                                     schema = @Schema(implementation = DetailedErrorResponse.class)
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "503",
+                            description = "Password hashing queue is full, retry after the Retry-After header",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
                     )
             }
     )
-    public ResponseEntity<SingleResponse<SuccessResponse>> register(
+    public CompletableFuture<ResponseEntity<SingleResponse<SuccessResponse>>> register(
             @Parameter(description = "Request body to register", required = true)
             @RequestBody @Valid RegisterRequest request
-    ) throws BindException {
-        userService.register(request);
+    ) {
+        // MessageSource phụ thuộc locale của request nên phải lấy trước khi chuyển sang pool băm mật khẩu.
+        String registrationSuccessful = messageSourceService.get("registration_successful");
+        String registeredSuccessfully = messageSourceService.get("registered_successfully");
 
-        return ResponseEntity.ok(
-                new SingleResponse<>(
-                        HttpStatus.OK.value(),
-                        messageSourceService.get("registration_successful"),
-                        SuccessResponse.builder().message(messageSourceService.get("registered_successfully")).build()
-                )
-        );
+        return userService.registerAsync(request)
+                .thenApply(user -> ResponseEntity.ok(
+                        new SingleResponse<>(
+                                HttpStatus.OK.value(),
+                                registrationSuccessful,
+                                SuccessResponse.builder().message(registeredSuccessfully).build()
+                        )
+                ));
     }
 
     @GetMapping("/refresh")
@@ -0,0 +1,372 @@
+package org.minh.template.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.minh.template.dto.response.PageResponse;
+import org.minh.template.dto.response.error.ErrorResponse;
+import org.minh.template.dto.response.SingleResponse;
+import org.minh.template.dto.response.SuccessResponse;
+import org.minh.template.dto.response.user.ImportUserResponse;
+import org.minh.template.dto.response.user.UserResponse;
+import org.minh.template.dto.response.user.UserSuggestionResponse;
+import org.minh.template.entity.User;
+import org.minh.template.service.user.UserExportService;
+import org.minh.template.service.user.UserImportService;
+import org.minh.template.service.user.UserSearchService;
+import org.minh.template.service.user.UserService;
+import org.minh.template.service.user.UserTypeaheadService;
+import org.minh.template.util.Constants;
+import org.minh.template.util.CreatePageHelper;
+import org.minh.template.util.KeysetPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.minh.template.util.Constants.SECURITY_SCHEME_NAME;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/users")
+@Tag(name = "003. User", description = "User management API (ADMIN)")
+public class UserController {
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final UserService userService;
+
+    private final UserExportService userExportService;
+
+    private final UserImportService userImportService;
+
+    private final UserSearchService userSearchService;
+
+    private final UserTypeaheadService userTypeaheadService;
+
+    @GetMapping
+    @Operation(
+            summary = "List users",
+            description = "Offset paging by default. The count parameter controls the total: estimated (default, "
+                    + "from database statistics, no COUNT), none (only hasNext) or exact (SELECT COUNT). "
+                    + "Set paging=cursor, or pass a cursor from nextCursor/prevCursor, to use keyset paging which "
+                    + "stays fast on deep pages and skips COUNT.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = PageResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid cursor, sort field or count mode",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PageResponse<UserResponse>> list(
+            @Parameter(description = "Page number (offset paging), starts at 1")
+            @RequestParam(defaultValue = "1") final int page,
+            @Parameter(description = "Page size; keyset paging returns at most 100 rows")
+            @RequestParam(defaultValue = "20") final int limit,
+            @Parameter(description = "Sort direction: asc or desc")
+            @RequestParam(required = false) final String sortType,
+            @Parameter(description = "Sort field; keyset paging supports createdAt, email, name, lastName")
+            @RequestParam(required = false) final String sortBy,
+            @Parameter(description = "offset or cursor")
+            @RequestParam(defaultValue = "offset") final String paging,
+            @Parameter(description = "Opaque cursor from nextCursor/prevCursor")
+            @RequestParam(required = false) final String cursor,
+            @Parameter(description = "Total for offset paging: estimated, none or exact")
+            @RequestParam(defaultValue = "estimated") final String count
+    ) {
+        if (StringUtils.hasText(cursor) || "cursor".equalsIgnoreCase(paging)) {
+            KeysetPage<UserResponse> users = userService.findAll(cursor, limit, sortType, sortBy)
+                    .map(UserResponse::convert);
+
+            return ResponseEntity.ok(new PageResponse<>(HttpStatus.OK.value(), "Successful operation",
+                    users.content(), PageResponse.PagingResponse.of(users)));
+        }
+
+        Pageable pageable = CreatePageHelper.createPageable(page, limit, null, sortType, sortBy);
+        Constants.PageCountEnum countMode = Constants.PageCountEnum.get(count);
+        if (countMode == Constants.PageCountEnum.EXACT) {
+            Page<User> users = userService.findAll(pageable);
+
+            return ResponseEntity.ok(new PageResponse<>(HttpStatus.OK.value(), "Successful operation",
+                    users.map(UserResponse::convert).getContent(), PageResponse.PagingResponse.of(users)));
+        }
+
+        Slice<User> users = userService.findSlice(pageable);
+        PageResponse.PagingResponse pagingResponse = countMode == Constants.PageCountEnum.ESTIMATED
+                ? PageResponse.PagingResponse.of(users, userService.estimateCount())
+                : PageResponse.PagingResponse.of(users);
+
+        return ResponseEntity.ok(new PageResponse<>(HttpStatus.OK.value(), "Successful operation",
+                users.map(UserResponse::convert).getContent(), pagingResponse));
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search users",
+            description = "Full-text search over name, last name and email, ignoring Vietnamese diacritics and "
+                    + "matching word prefixes (\"nguy\" finds \"Nguyễn\"); a query with digits also matches phone "
+                    + "numbers by prefix. Every word must match, hits are ordered by relevance.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = PageResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<PageResponse<UserResponse>> search(
+            @Parameter(description = "Search terms")
+            @RequestParam(defaultValue = "") final String q,
+            @Parameter(description = "Page number, starts at 1")
+            @RequestParam(defaultValue = "1") final int page,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") final int limit
+    ) {
+        Page<User> users = userSearchService.search(q,
+                CreatePageHelper.createPageable(page, limit, null, null, null));
+
+        return ResponseEntity.ok(new PageResponse<>(HttpStatus.OK.value(), "Successful operation",
+                users.map(UserResponse::convert).getContent(), PageResponse.PagingResponse.of(users)));
+    }
+
+    @GetMapping("/typeahead")
+    @Operation(
+            summary = "Suggest users by prefix",
+            description = "Users whose full name or e-mail starts with q, ignoring diacritics and case, in "
+                    + "alphabetical order of the matched text. Answered from an in-memory index without querying "
+                    + "the database, meant to be called on every keystroke.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = UserSuggestionResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<List<UserSuggestionResponse>>> typeahead(
+            @Parameter(description = "Prefix of the full name or e-mail")
+            @RequestParam(defaultValue = "") final String q,
+            @Parameter(description = "Maximum number of suggestions, at most 50")
+            @RequestParam(defaultValue = "10") final int limit
+    ) {
+        List<UserSuggestionResponse> suggestions = userTypeaheadService
+                .suggest(q, Math.min(limit, MAX_SUGGESTIONS)).stream()
+                .map(UserSuggestionResponse::convert)
+                .toList();
+
+        return ResponseEntity.ok(new SingleResponse<>(HttpStatus.OK.value(), "Successful operation",
+                suggestions));
+    }
+
+    @PostMapping("/reindex")
+    @Operation(
+            summary = "Rebuild the user search index",
+            description = "Starts a background rebuild of the search index from the database and returns immediately.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Rebuild started",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = SuccessResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<SuccessResponse>> reindex() {
+        userSearchService.reindex();
+
+        return ResponseEntity.accepted().body(new SingleResponse<>(HttpStatus.ACCEPTED.value(), "Successful operation",
+                SuccessResponse.builder().message("User search index rebuild started").build()));
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all users",
+            description = "Streams every user as NDJSON (one JSON object per line) or CSV, ordered by creation time. "
+                    + "Rows are written while they are read, so memory use does not depend on the number of users.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = {
+                                    @Content(mediaType = "application/x-ndjson"),
+                                    @Content(mediaType = "text/csv")
+                            }
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid export format",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "ndjson or csv")
+            @RequestParam(defaultValue = "ndjson") final String format
+    ) {
+        Constants.ExportFormatEnum exportFormat = Constants.ExportFormatEnum.get(format);
+        // Chạy trên thread async của Spring MVC; transaction chỉ đọc được mở bên trong UserExportService.export.
+        StreamingResponseBody body = outputStream -> userExportService.export(exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + exportFormat.getValue()).build().toString())
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @Operation(
+            summary = "Import users from an NDJSON body",
+            description = "One user per line: email, password or passwordHash (BCrypt), name, lastName, birthDate, "
+                    + "phoneNumber, gender. Invalid rows are reported with their line number and skipped.",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ImportUserResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "403",
+                            description = "Forbidden",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<ImportUserResponse>> importStream(final InputStream body) throws IOException {
+        return importUsers(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Import users from an uploaded NDJSON file",
+            security = @SecurityRequirement(name = SECURITY_SCHEME_NAME),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Successful operation",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ImportUserResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Missing file",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    public ResponseEntity<SingleResponse<ImportUserResponse>> importFile(
+            @Parameter(description = "NDJSON file, one user per line", required = true)
+            @RequestPart("file") final MultipartFile file
+    ) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return importUsers(inputStream);
+        }
+    }
+
+    private ResponseEntity<SingleResponse<ImportUserResponse>> importUsers(final InputStream inputStream)
+            throws IOException {
+        return ResponseEntity.ok(new SingleResponse<>(HttpStatus.OK.value(), "Successful operation",
+                userImportService.importUsers(inputStream)));
+    }
+}
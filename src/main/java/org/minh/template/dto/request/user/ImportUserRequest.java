@@ -0,0 +1,92 @@
+package org.minh.template.dto.request.user;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@SuperBuilder
+// Một dòng NDJSON của file import user. Cần password (băm khi import) hoặc passwordHash (BCrypt có sẵn khi chuyển
+// dữ liệu từ hệ thống cũ sang).
+public class ImportUserRequest {
+    @NotBlank(message = "{not_blank}")
+    @Email(message = "{invalid_email}")
+    @Size(max = 100, message = "{max_length}")
+    @Schema(
+            name = "email",
+            description = "Email of the user",
+            type = "String",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "mail@example.com"
+    )
+    private String email;
+
+    @Schema(
+            name = "password",
+            description = "Plain password, hashed during import. Required unless passwordHash is given",
+            type = "String",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED,
+            example = "P@sswd123."
+    )
+    private String password;
+
+    @Pattern(regexp = "^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$", message = "{invalid_password_hash}")
+    @Schema(
+            name = "passwordHash",
+            description = "Existing BCrypt hash, stored as is",
+            type = "String",
+            requiredMode = Schema.RequiredMode.NOT_REQUIRED,
+            example = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"
+    )
+    private String passwordHash;
+
+    @NotBlank(message = "{not_blank}")
+    @Size(max = 50, message = "{max_length}")
+    @Schema(
+            name = "name",
+            description = "Name of the user",
+            type = "String",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "John"
+    )
+    private String name;
+
+    @NotBlank(message = "{not_blank}")
+    @Size(max = 50, message = "{max_length}")
+    @Schema(
+            name = "lastName",
+            description = "Lastname of the user",
+            type = "String",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "DOE"
+    )
+    private String lastName;
+
+    @Size(max = 20, message = "{max_length}")
+    private String phoneNumber;
+
+    @Size(max = 10, message = "{max_length}")
+    private String gender;
+
+    @NotNull(message = "{not_null}")
+    @Schema(
+            name = "birthDate",
+            description = "Birth date of the user",
+            type = "string",
+            format = "date-time",
+            requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "2000-01-01T00:00:00"
+    )
+    private LocalDateTime birthDate;
+}
@@ -1,9 +1,13 @@
 package org.minh.template.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.SuperBuilder;
+import org.minh.template.util.KeysetPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -28,10 +32,55 @@ public class PageResponse<T> extends AbstractBaseResponse {
 
     @Data
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    // Phân trang offset: page, limit, total, totalPages, hasNext. Với count=none không có total/totalPages;
+    // với count=estimated thì total là giá trị ước lượng và estimated=true.
+    // Phân trang keyset (cursor): limit, nextCursor, prevCursor; không đếm tổng số dòng nên total và totalPages là null.
     public static class PagingResponse {
-        private int page;
+        private Integer page;
         private int limit;
-        private long total;
-        private int totalPages;
+        private Long total;
+        private Integer totalPages;
+        private Boolean estimated;
+        private Boolean hasNext;
+        private String nextCursor;
+        private String prevCursor;
+
+        public PagingResponse(int page, int limit, long total, int totalPages) {
+            this(page, limit, total, totalPages, null, null, null, null);
+        }
+
+        public static PagingResponse of(final Page<?> page) {
+            return new PagingResponse(page.getNumber() + 1, page.getSize(), page.getTotalElements(),
+                    page.getTotalPages(), null, page.hasNext(), null, null);
+        }
+
+        public static PagingResponse of(final Slice<?> slice) {
+            return new PagingResponse(slice.getNumber() + 1, slice.getSize(), null, null, null, slice.hasNext(),
+                    null, null);
+        }
+
+        /**
+         * Slice kèm tổng số dòng ước lượng. Giá trị ước lượng không được nhỏ hơn số dòng đã thấy tới trang này;
+         * ở trang cuối (hasNext=false) tổng số dòng đã biết chính xác.
+         *
+         * @param slice          Slice
+         * @param estimatedTotal long
+         * @return PagingResponse
+         */
+        public static PagingResponse of(final Slice<?> slice, final long estimatedTotal) {
+            long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements()
+                    + (slice.hasNext() ? 1 : 0);
+            long total = slice.hasNext() ? Math.max(estimatedTotal, seen) : seen;
+            int totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize());
+
+            return new PagingResponse(slice.getNumber() + 1, slice.getSize(), total, totalPages, slice.hasNext(),
+                    slice.hasNext(), null, null);
+        }
+
+        public static PagingResponse of(final KeysetPage<?> page) {
+            return new PagingResponse(null, page.limit(), null, null, null, null, page.nextCursor(),
+                    page.prevCursor());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package org.minh.template.dto.response.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.minh.template.entity.JwtToken;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Getter
+@Setter
+@SuperBuilder
+public class SessionResponse {
+    @Schema(
+            name = "id",
+            description = "Session UUID",
+            type = "String",
+            example = "91b2999d-d327-4dc8-9956-2fadc0dc8778"
+    )
+    private String id;
+
+    @Schema(
+            name = "ipAddress",
+            description = "IP address the session was created from",
+            type = "String",
+            example = "127.0.0.1"
+    )
+    private String ipAddress;
+
+    @Schema(
+            name = "userAgent",
+            description = "User agent the session was created from",
+            type = "String",
+            example = "Mozilla/5.0"
+    )
+    private String userAgent;
+
+    private Boolean rememberMe;
+
+    @Schema(
+            name = "current",
+            description = "Whether this is the session of the current request",
+            type = "Boolean",
+            example = "true"
+    )
+    private Boolean current;
+
+    @Schema(
+            name = "issuedAt",
+            description = "Date time field of session creation",
+            type = "LocalDateTime",
+            example = "2022-09-29T22:37:31"
+    )
+    private LocalDateTime issuedAt;
+
+    @Schema(
+            name = "expiresAt",
+            description = "Date time field of session expiry",
+            type = "LocalDateTime",
+            example = "2022-09-29T22:37:31"
+    )
+    private LocalDateTime expiresAt;
+
+    /**
+     * Convert JwtToken to SessionResponse
+     * @param jwtToken     JwtToken
+     * @param currentToken String access token of the current request
+     * @return SessionResponse
+     */
+    public static SessionResponse convert(JwtToken jwtToken, String currentToken) {
+        return SessionResponse.builder()
+                .id(String.valueOf(jwtToken.getId()))
+                .ipAddress(jwtToken.getIpAddress())
+                .userAgent(jwtToken.getUserAgent())
+                .rememberMe(jwtToken.getRememberMe())
+                .current(jwtToken.getToken().equals(currentToken))
+                .issuedAt(toLocalDateTime(jwtToken.getIssuedAt()))
+                .expiresAt(jwtToken.getTokenTimeToLive() != null
+                        ? toLocalDateTime(System.currentTimeMillis() + jwtToken.getTokenTimeToLive()) : null)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Long epochMilli) {
+        return epochMilli != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault())
+                : null;
+    }
+}
@@ -0,0 +1,73 @@
+package org.minh.template.dto.response.user;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@SuperBuilder
+public class ImportUserResponse {
+    @Schema(
+            name = "total",
+            description = "Number of rows read",
+            type = "Long",
+            example = "1000"
+    )
+    private long total;
+
+    @Schema(
+            name = "imported",
+            description = "Number of users created",
+            type = "Long",
+            example = "998"
+    )
+    private long imported;
+
+    @Schema(
+            name = "failed",
+            description = "Number of rejected rows",
+            type = "Long",
+            example = "2"
+    )
+    private long failed;
+
+    @Schema(
+            name = "errors",
+            description = "Rejected rows (at most the first 1000), the import continues past them"
+    )
+    private List<RowError> errors;
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        @Schema(
+                name = "line",
+                description = "Line number in the file, starts at 1",
+                type = "Long",
+                example = "12"
+        )
+        private long line;
+
+        @Schema(
+                name = "email",
+                type = "String",
+                nullable = true,
+                example = "mail@example.com"
+        )
+        private String email;
+
+        @Schema(
+                name = "items",
+                description = "Error message by field",
+                type = "Map",
+                example = "{\"email\": \"Email already exists\"}"
+        )
+        private Map<String, String> items;
+    }
+}
@@ -0,0 +1,35 @@
+package org.minh.template.dto.response.user;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.minh.template.util.TypeaheadIndex;
+
+@Getter
+@Setter
+@SuperBuilder
+public class UserSuggestionResponse {
+    @Schema(
+            name = "id",
+            description = "UUID",
+            type = "String",
+            example = "91b2999d-d327-4dc8-9956-2fadc0dc8778"
+    )
+    private String id;
+
+    @Schema(
+            name = "text",
+            description = "Matched full name or e-mail, without diacritics and in lower case",
+            type = "String",
+            example = "nguyen van an"
+    )
+    private String text;
+
+    public static UserSuggestionResponse convert(TypeaheadIndex.Hit hit) {
+        return UserSuggestionResponse.builder()
+                .id(hit.id().toString())
+                .text(hit.text())
+                .build();
+    }
+}
@@ -2,8 +2,10 @@ package org.minh.template.entity;
 
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.redis.core.RedisHash;
@@ -16,6 +18,10 @@ import java.util.concurrent.TimeUnit;
 @Builder
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+// Từ khi có JwtSessionStore, phiên mới được lưu theo key trực tiếp (digest của token), không qua @RedisHash nữa.
+// @RedisHash chỉ còn dùng để đọc/xóa các phiên cũ cho tới khi chúng hết hạn (app.jwt.session-store.legacy-fallback).
 @RedisHash(value = "jwtTokens") // Đánh dấu class này sẽ được lưu trữ dưới dạng hash trong Redis với tên là jwtTokens.
 public class JwtToken {
     @Id
@@ -31,15 +37,15 @@ public class JwtToken {
     @Indexed
     private String refreshToken;
 
-    @Indexed
     private Boolean rememberMe;
 
-    @Indexed
     private String ipAddress;
 
-    @Indexed
     private String userAgent;
 
+    // Thời điểm phát hành phiên (epoch ms), dùng làm score trong index phiên theo user (JwtSessionStore).
+    private Long issuedAt;
+
     @TimeToLive(unit = TimeUnit.MILLISECONDS)
     private Long tokenTimeToLive;
 }
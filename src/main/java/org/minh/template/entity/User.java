@@ -6,15 +6,21 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
+import org.minh.template.config.fts.VietnameseAnalysisConfigurer;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Indexed(index = "users")
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"email"}, name = "uk_users_email")
 }, indexes = {
         @Index(columnList = "name", name = "idx_users_name"),
-        @Index(columnList = "last_name", name = "idx_users_last_name")
+        @Index(columnList = "last_name", name = "idx_users_last_name"),
+        @Index(columnList = "created_at, id", name = "idx_users_created_at_id") // phân trang keyset mặc định
 })
 @Getter
 @Setter
@@ -23,18 +29,25 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class User extends AbstractBaseEntity {
     @Column(name = "email", nullable = false)
+    @FullTextField(analyzer = VietnameseAnalysisConfigurer.VIETNAMESE_PREFIX,
+            searchAnalyzer = VietnameseAnalysisConfigurer.VIETNAMESE)
     private String email;
 
     @Column(name = "password", nullable = false)
     private String password;
 
     @Column(name = "name", nullable = false, length = 50)
+    @FullTextField(analyzer = VietnameseAnalysisConfigurer.VIETNAMESE_PREFIX,
+            searchAnalyzer = VietnameseAnalysisConfigurer.VIETNAMESE)
     private String name;
 
     @Column(name = "last_name", nullable = false, length = 50)
+    @FullTextField(analyzer = VietnameseAnalysisConfigurer.VIETNAMESE_PREFIX,
+            searchAnalyzer = VietnameseAnalysisConfigurer.VIETNAMESE)
     private String lastName;
 
     @Column(name = "phone_number", length = 20)
+    @KeywordField(normalizer = VietnameseAnalysisConfigurer.PHONE)
     private String phoneNumber;
 
     @Column(name = "gender", length = 10)
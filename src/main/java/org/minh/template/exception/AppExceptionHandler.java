@@ -12,6 +12,7 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.crossstore.ChangeSetPersister;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -106,6 +107,16 @@ public class AppExceptionHandler {
         return build(HttpStatus.FORBIDDEN, e.getMessage());
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public final ResponseEntity<ErrorResponse> handleServiceBusyException(final ServiceBusyException e) {
+        log.warn(e.toString(), e.getMessage());
+        ResponseEntity<ErrorResponse> response = build(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()))
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(Exception.class)
     public final ResponseEntity<ErrorResponse> handleAllExceptions(final Exception e) {
         log.error("Exception: {}", ExceptionUtils.getStackTrace(e));
@@ -0,0 +1,26 @@
+package org.minh.template.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@Getter
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Số giây client nên chờ trước khi thử lại (header Retry-After).
+    private final long retryAfter;
+
+    public ServiceBusyException(final long retryAfter) {
+        this("Service is busy, please retry later!", retryAfter);
+    }
+
+    public ServiceBusyException(final String message, final long retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
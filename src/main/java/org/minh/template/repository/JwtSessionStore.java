@@ -0,0 +1,370 @@
+package org.minh.template.repository;
+
+import org.minh.template.entity.JwtToken;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+// Kho lưu phiên đăng nhập theo key trực tiếp, thay cho @RedisHash + @Indexed của JwtTokenRepository.
+// Mỗi phiên được ghi vào 2 key (digest SHA-256 của access token và của refresh token), tra cứu bằng GET/MGET O(1):
+//   jwtSessions:at:<digest(accessToken)>  -> JwtToken
+//   jwtSessions:rt:<digest(refreshToken)> -> JwtToken
+// Thêm một sorted set cho mỗi user để liệt kê / thu hồi toàn bộ phiên và giới hạn số phiên:
+//   jwtSessions:user:<userId> -> member "<digest(accessToken)>:<digest(refreshToken)>", score = issuedAt
+// Member chứa sẵn 2 digest nên từ index suy ra được cả 2 key của phiên mà không cần đọc giá trị.
+// Các script bên dưới truy cập key suy ra từ member, nên chỉ chạy trên Redis standalone / sentinel (không phải cluster).
+public class JwtSessionStore {
+    public static final String ACCESS_KEY_PREFIX = "jwtSessions:at:";
+
+    public static final String REFRESH_KEY_PREFIX = "jwtSessions:rt:";
+
+    public static final String USER_KEY_PREFIX = "jwtSessions:user:";
+
+    private static final String MEMBER_SEPARATOR = ":";
+
+    // Bản mẫu chưa dùng, mỗi lần băm clone ra một MessageDigest mới (rẻ hơn getInstance, không tra provider).
+    // Không dùng ThreadLocal: với virtual thread mỗi request là một thread mới nên ThreadLocal không được dùng lại.
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Ghi phiên mới và cập nhật index của user trong một script:
+    // - SET 2 key của phiên, ZADD member vào index
+    // - bỏ các member đã quá hạn sống tối đa của một phiên (score < ARGV[6])
+    // - nếu số phiên vượt giới hạn (ARGV[5] > 0) thì loại các phiên cũ nhất (ZPOPMIN) và xóa key của chúng
+    // - gia hạn TTL của index theo phiên sống lâu nhất
+    //   KEYS: access, refresh, index. ARGV: phiên, TTL (ms, 0 = không hết hạn), member, issuedAt, giới hạn, mốc quá hạn.
+    // Trả về giá trị của các phiên bị loại để nơi gọi xóa near cache và thu hồi token.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SAVE_SCRIPT = RedisScript.of("""
+            local ttl = tonumber(ARGV[2])
+            if ttl > 0 then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ttl)
+                redis.call('SET', KEYS[2], ARGV[1], 'PX', ttl)
+            else
+                redis.call('SET', KEYS[1], ARGV[1])
+                redis.call('SET', KEYS[2], ARGV[1])
+            end
+            redis.call('ZADD', KEYS[3], ARGV[4], ARGV[3])
+            redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', '(' .. ARGV[6])
+            local evicted = {}
+            local max = tonumber(ARGV[5])
+            if max > 0 then
+                local excess = redis.call('ZCARD', KEYS[3]) - max
+                if excess > 0 then
+                    local popped = redis.call('ZPOPMIN', KEYS[3], excess)
+                    for i = 1, #popped, 2 do
+                        local member = popped[i]
+                        local separator = string.find(member, ':', 1, true)
+                        local accessKey = 'jwtSessions:at:' .. string.sub(member, 1, separator - 1)
+                        local refreshKey = 'jwtSessions:rt:' .. string.sub(member, separator + 1)
+                        local value = redis.call('GET', accessKey) or redis.call('GET', refreshKey)
+                        if value then
+                            table.insert(evicted, value)
+                        end
+                        redis.call('DEL', accessKey, refreshKey)
+                    end
+                end
+            end
+            if ttl > 0 then
+                if redis.call('PTTL', KEYS[3]) < ttl then
+                    redis.call('PEXPIRE', KEYS[3], ttl)
+                end
+            else
+                redis.call('PERSIST', KEYS[3])
+            end
+            return evicted
+            """, List.class);
+
+    // Xoay phiên khi refresh: chỉ thành công nếu key refresh cũ còn tồn tại (GET), sau đó xóa cả 2 key cũ
+    // và ghi 2 key mới trong cùng một script. Redis chạy script tuần tự nên 2 lần refresh đồng thời cùng một token
+    // thì chỉ một lần thấy key cũ, lần còn lại nhận nil. Member của phiên cũ trong index được thay bằng member mới.
+    //   KEYS: refresh cũ, access cũ, access mới, refresh mới, index.
+    //   ARGV: phiên mới, TTL (ms, 0 = không hết hạn), member cũ, member mới, issuedAt.
+    private static final RedisScript<JwtToken> ROTATE_SCRIPT = RedisScript.of("""
+            local old = redis.call('GET', KEYS[1])
+            if not old then
+                return false
+            end
+            redis.call('DEL', KEYS[1], KEYS[2])
+            local ttl = tonumber(ARGV[2])
+            if ttl > 0 then
+                redis.call('SET', KEYS[3], ARGV[1], 'PX', ttl)
+                redis.call('SET', KEYS[4], ARGV[1], 'PX', ttl)
+            else
+                redis.call('SET', KEYS[3], ARGV[1])
+                redis.call('SET', KEYS[4], ARGV[1])
+            end
+            redis.call('ZREM', KEYS[5], ARGV[3])
+            redis.call('ZADD', KEYS[5], ARGV[5], ARGV[4])
+            if ttl > 0 then
+                if redis.call('PTTL', KEYS[5]) < ttl then
+                    redis.call('PEXPIRE', KEYS[5], ttl)
+                end
+            else
+                redis.call('PERSIST', KEYS[5])
+            end
+            return old
+            """, JwtToken.class);
+
+    private final RedisTemplate<String, JwtToken> jwtSessionRedisTemplate;
+
+    // Index theo user chứa member dạng chuỗi, không đi qua serializer JwtToken.
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public JwtSessionStore(final RedisTemplate<String, JwtToken> jwtSessionRedisTemplate,
+                           final StringRedisTemplate stringRedisTemplate) {
+        this.jwtSessionRedisTemplate = jwtSessionRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * Find a session by access token or refresh token in one round-trip.
+     *
+     * @param token String
+     * @return Optional of JwtToken
+     */
+    public Optional<JwtToken> findByTokenOrRefreshToken(final String token) {
+        String digest = digest(token);
+        List<JwtToken> sessions = jwtSessionRedisTemplate.opsForValue()
+                .multiGet(List.of(ACCESS_KEY_PREFIX + digest, REFRESH_KEY_PREFIX + digest));
+        if (sessions == null) {
+            return Optional.empty();
+        }
+
+        return sessions.stream().filter(Objects::nonNull).findFirst();
+    }
+
+    /**
+     * Find a session by refresh token.
+     *
+     * @param refreshToken String
+     * @return Optional of JwtToken
+     */
+    public Optional<JwtToken> findByRefreshToken(final String refreshToken) {
+        return Optional.ofNullable(jwtSessionRedisTemplate.opsForValue().get(refreshKey(refreshToken)));
+    }
+
+    /**
+     * Find the active sessions of a user, newest first. Member trỏ tới phiên đã hết hạn được gỡ khỏi index luôn.
+     *
+     * @param userId UUID
+     * @return List of JwtToken
+     */
+    public List<JwtToken> findAllByUserId(final UUID userId) {
+        String userKey = userKey(userId);
+        Set<String> members = stringRedisTemplate.opsForZSet().reverseRange(userKey, 0, -1);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> memberList = new ArrayList<>(members);
+        List<JwtToken> values = jwtSessionRedisTemplate.opsForValue().multiGet(memberList.stream()
+                .map(member -> REFRESH_KEY_PREFIX + member.substring(member.indexOf(MEMBER_SEPARATOR) + 1))
+                .toList());
+        List<JwtToken> sessions = new ArrayList<>(memberList.size());
+        List<Object> stale = new ArrayList<>();
+        for (int i = 0; i < memberList.size(); i++) {
+            JwtToken session = values != null ? values.get(i) : null;
+            if (session != null) {
+                sessions.add(session);
+            } else {
+                stale.add(memberList.get(i));
+            }
+        }
+        if (!stale.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(userKey, stale.toArray());
+        }
+
+        return sessions;
+    }
+
+    /**
+     * Save a session under both token keys and add it to the user index.
+     *
+     * @param jwtToken     JwtToken
+     * @param maxSessions  int maximum sessions per user, 0 for no limit
+     * @param staleBefore  long index members issued before this epoch millis are dropped
+     * @return List of sessions evicted because the user exceeded maxSessions
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<JwtToken> save(final JwtToken jwtToken, final int maxSessions, final long staleBefore) {
+        RedisSerializer<JwtToken> valueSerializer = valueSerializer();
+        // Kết quả dạng mảng: Spring áp dụng result serializer cho từng phần tử, nên truyền serializer JwtToken.
+        List<JwtToken> evicted = jwtSessionRedisTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(),
+                (RedisSerializer) valueSerializer,
+                List.of(accessKey(jwtToken.getToken()), refreshKey(jwtToken.getRefreshToken()),
+                        userKey(jwtToken.getUserId())),
+                valueSerializer.serialize(jwtToken), ttlArg(jwtToken), bytes(member(jwtToken)),
+                bytes(String.valueOf(jwtToken.getIssuedAt())), bytes(String.valueOf(maxSessions)),
+                bytes(String.valueOf(staleBefore)));
+
+        return evicted != null ? evicted : List.of();
+    }
+
+    /**
+     * Delete both keys of a session and remove it from the user index.
+     *
+     * @param jwtToken JwtToken
+     */
+    public void delete(final JwtToken jwtToken) {
+        byte[] accessKey = bytes(accessKey(jwtToken.getToken()));
+        byte[] refreshKey = bytes(refreshKey(jwtToken.getRefreshToken()));
+        byte[] member = bytes(member(jwtToken));
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(accessKey, refreshKey);
+            if (jwtToken.getUserId() != null) {
+                connection.zSetCommands().zRem(bytes(userKey(jwtToken.getUserId())), member);
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Delete every session of a user: đọc index và các phiên (MGET) rồi xóa tất cả key bằng một lệnh DEL.
+     *
+     * @param userId UUID
+     * @return List of deleted sessions
+     */
+    public List<JwtToken> deleteAllByUserId(final UUID userId) {
+        String userKey = userKey(userId);
+        Set<String> members = stringRedisTemplate.opsForZSet().range(userKey, 0, -1);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> keys = new ArrayList<>(members.size() * 2 + 1);
+        List<String> refreshKeys = new ArrayList<>(members.size());
+        for (String member : members) {
+            int separator = member.indexOf(MEMBER_SEPARATOR);
+            String refreshKey = REFRESH_KEY_PREFIX + member.substring(separator + 1);
+            keys.add(ACCESS_KEY_PREFIX + member.substring(0, separator));
+            keys.add(refreshKey);
+            refreshKeys.add(refreshKey);
+        }
+        keys.add(userKey);
+
+        List<JwtToken> sessions = jwtSessionRedisTemplate.opsForValue().multiGet(refreshKeys);
+        // Một lệnh DEL cho toàn bộ key của mọi phiên và cả index.
+        jwtSessionRedisTemplate.delete(keys);
+
+        return sessions != null ? sessions.stream().filter(Objects::nonNull).toList() : List.of();
+    }
+
+    /**
+     * Atomically replace the session of a refresh token with a new session in one round-trip.
+     *
+     * @param oldRefreshToken       String
+     * @param oldAccessTokenDigest  String digest of the access token issued with the old refresh token
+     * @param jwtToken              JwtToken new session
+     * @return Optional of the old session, empty if the refresh token was already used or has expired
+     */
+    public Optional<JwtToken> rotate(final String oldRefreshToken, final String oldAccessTokenDigest,
+                                     final JwtToken jwtToken) {
+        RedisSerializer<JwtToken> valueSerializer = valueSerializer();
+        String oldMember = oldAccessTokenDigest + MEMBER_SEPARATOR + digest(oldRefreshToken);
+
+        JwtToken oldSession = jwtSessionRedisTemplate.execute(ROTATE_SCRIPT, RedisSerializer.byteArray(),
+                valueSerializer,
+                List.of(refreshKey(oldRefreshToken), ACCESS_KEY_PREFIX + oldAccessTokenDigest,
+                        accessKey(jwtToken.getToken()), refreshKey(jwtToken.getRefreshToken()),
+                        userKey(jwtToken.getUserId())),
+                valueSerializer.serialize(jwtToken), ttlArg(jwtToken), bytes(oldMember), bytes(member(jwtToken)),
+                bytes(String.valueOf(jwtToken.getIssuedAt())));
+
+        return Optional.ofNullable(oldSession);
+    }
+
+    /**
+     * Build the Redis key of an access token.
+     *
+     * @param token String
+     * @return String
+     */
+    public static String accessKey(final String token) {
+        return ACCESS_KEY_PREFIX + digest(token);
+    }
+
+    /**
+     * Build the Redis key of a refresh token.
+     *
+     * @param refreshToken String
+     * @return String
+     */
+    public static String refreshKey(final String refreshToken) {
+        return REFRESH_KEY_PREFIX + digest(refreshToken);
+    }
+
+    /**
+     * Build the Redis key of a user session index.
+     *
+     * @param userId UUID
+     * @return String
+     */
+    public static String userKey(final UUID userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    /**
+     * SHA-256 digest of a token, Base64URL encoded. Key ngắn và không để lộ token gốc trong tên key.
+     *
+     * @param token String
+     * @return String
+     */
+    public static String digest(final String token) {
+        byte[] hash = sha256().digest(token.getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return (MessageDigest) SHA_256.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String member(final JwtToken jwtToken) {
+        return digest(jwtToken.getToken()) + MEMBER_SEPARATOR + digest(jwtToken.getRefreshToken());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<JwtToken> valueSerializer() {
+        return (RedisSerializer<JwtToken>) jwtSessionRedisTemplate.getValueSerializer();
+    }
+
+    // Tham số script được serialize sẵn thành byte[] vì script nhận cả giá trị phiên lẫn số dạng chuỗi.
+    private static byte[] ttlArg(final JwtToken jwtToken) {
+        Long ttl = jwtToken.getTokenTimeToLive();
+
+        return bytes(String.valueOf(ttl != null ? ttl : 0));
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
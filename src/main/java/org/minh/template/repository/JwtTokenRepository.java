@@ -4,6 +4,7 @@ import org.minh.template.entity.JwtToken;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +13,6 @@ public interface JwtTokenRepository extends CrudRepository<JwtToken, UUID> {
     Optional<JwtToken> findByTokenOrRefreshToken(String token, String refreshToken);
 
     Optional<JwtToken> findByUserIdAndRefreshToken(UUID id, String refreshToken);
+
+    List<JwtToken> findByUserId(UUID userId);
 }
\ No newline at end of file
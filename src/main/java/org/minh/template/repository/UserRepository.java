@@ -5,6 +5,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.minh.template.entity.User;
 import org.minh.template.util.Constants;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -12,18 +15,35 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
-    @Query("SELECT u FROM User u WHERE u.email = :email")
+public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User>,
+        UserRepositoryCustom {
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.role WHERE u.email = :email")
     Optional<User> findByEmail(@Param("email") String email);
 
     @EntityGraph(attributePaths = {"role"})
     Optional<User> findById(@Param("id") UUID id);
 
+    // Danh sách user kèm role trong cùng câu truy vấn (tránh N+1 khi convert sang UserResponse).
+    @EntityGraph(attributePaths = {"role"})
+    Page<User> findAll(Pageable pageable);
+
+    // Như findAll(Pageable) nhưng trả về Slice: lấy limit + 1 dòng để biết còn trang sau, không chạy SELECT COUNT(*).
+    @EntityGraph(attributePaths = {"role"})
+    Slice<User> findAllBy(Pageable pageable);
+
+    // Nạp các user theo id trả về từ index tìm kiếm, kèm role (thứ tự do service sắp lại theo kết quả tìm kiếm).
+    @EntityGraph(attributePaths = {"role"})
+    List<User> findAllByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     boolean existsByEmailAndIdNot(String email, UUID id);
 
     @EntityGraph(attributePaths = {"role", "employee", "employee.branch", "orders"})
@@ -0,0 +1,34 @@
+package org.minh.template.repository;
+
+import org.minh.template.entity.User;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+    // Các trường có index được phép làm khóa keyset; tên trường được ghép vào HQL nên phải nằm trong danh sách này.
+    Set<String> KEYSET_SORT_FIELDS = Set.of("createdAt", "email", "name", "lastName");
+
+    List<User> findKeyset(String sortBy, Sort.Direction direction, Object value, UUID id, int limit);
+
+    long estimateCount();
+
+    Stream<User> streamAll(int fetchSize);
+
+    Stream<UserName> streamNames(int fetchSize);
+
+    void insertAll(List<User> users);
+
+    boolean insertIfAbsent(User user);
+
+    // Chỉ các cột dùng cho gợi ý tìm kiếm (typeahead), không nạp entity.
+    record UserName(UUID id, String name, String lastName, String email) {
+        // Giống User.getFullName()
+        public String fullName() {
+            return lastName + " " + name;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.minh.template.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.minh.template.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Phân trang keyset cho bảng users: WHERE (sort_key, id) > (?, ?) ORDER BY sort_key, id LIMIT n.
+// Database đi thẳng tới vị trí cursor trên index (sort_key, id) nên chi phí không phụ thuộc trang sâu tới đâu,
+// khác với OFFSET phải đọc và bỏ qua toàn bộ các dòng phía trước.
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private static final String INSERT_SQL = "insert into \"users\" (\"id\", \"email\", \"password\", \"name\", "
+            + "\"last_name\", \"phone_number\", \"gender\", \"birth_date\", \"role_id\", \"created_at\", "
+            + "\"updated_at\") values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Trùng email thì không chèn và không báo lỗi (0 dòng), transaction đang mở không bị hủy như khi vi phạm unique.
+    private static final String INSERT_IF_ABSENT_SQL = INSERT_SQL + " on conflict (\"email\") do nothing";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Find the users after the (value, id) position in the given direction.
+     *
+     * @param sortBy    String one of createdAt, email, name, lastName
+     * @param direction Sort.Direction
+     * @param value     Object sort key of the last seen user, null for the first page
+     * @param id        UUID id of the last seen user, null for the first page
+     * @param limit     int
+     * @return List of User (role fetched)
+     */
+    @Override
+    public List<User> findKeyset(final String sortBy, final Sort.Direction direction, final Object value,
+                                 final UUID id, final int limit) {
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+
+        String order = direction.isAscending() ? "asc" : "desc";
+        StringBuilder hql = new StringBuilder("select u from User u left join fetch u.role");
+        if (value != null && id != null) {
+            hql.append(" where (u.").append(sortBy).append(", u.id) ")
+                    .append(direction.isAscending() ? ">" : "<").append(" (:value, :id)");
+        }
+        hql.append(" order by u.").append(sortBy).append(' ').append(order).append(", u.id ").append(order);
+
+        TypedQuery<User> query = entityManager.createQuery(hql.toString(), User.class);
+        if (value != null && id != null) {
+            query.setParameter("value", value).setParameter("id", id);
+        }
+
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Estimate the number of users from the planner statistics (PostgreSQL pg_class.reltuples), no table scan.
+     * Falls back to an exact count on other databases or when the table has never been analyzed.
+     *
+     * @return long
+     */
+    @Override
+    public long estimateCount() {
+        if (isPostgreSQL()) {
+            Number estimate = (Number) entityManager
+                    .createNativeQuery("select cast(reltuples as bigint) from pg_class where oid = to_regclass('users')")
+                    .getSingleResult();
+            // reltuples = -1 khi bảng chưa từng được VACUUM/ANALYZE
+            if (estimate != null && estimate.longValue() >= 0) {
+                return estimate.longValue();
+            }
+        }
+
+        return entityManager.createQuery("select count(u) from User u", Long.class).getSingleResult();
+    }
+
+    /**
+     * Stream all users (role fetched) ordered by (createdAt, id) through a forward-only cursor.
+     * Must be consumed inside a transaction and closed; entities are read-only (no dirty-checking snapshots).
+     *
+     * @param fetchSize int JDBC fetch size
+     * @return Stream of User
+     */
+    @Override
+    public Stream<User> streamAll(final int fetchSize) {
+        return entityManager.createQuery(
+                        "select u from User u left join fetch u.role order by u.createdAt, u.id", User.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Stream id, name, last name and email of every user as scalar rows (no entities, nothing kept in the
+     * persistence context). Must be consumed inside a transaction and closed.
+     *
+     * @param fetchSize int rows fetched per round trip
+     * @return Stream of UserName
+     */
+    @Override
+    public Stream<UserName> streamNames(final int fetchSize) {
+        return entityManager.createQuery("select u.id, u.name, u.lastName, u.email from User u", UserName.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Insert new users with one JDBC batch (a multi-row insert on PostgreSQL with reWriteBatchedInserts).
+     * Ids and timestamps must already be set; the users are not attached to the persistence context.
+     *
+     * @param users List of User
+     */
+    @Override
+    public void insertAll(final List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), UserRepositoryCustomImpl::bind);
+    }
+
+    /**
+     * Insert a new user unless the email is taken, in one statement: INSERT ... ON CONFLICT (email) DO NOTHING on
+     * PostgreSQL; other databases try the plain insert and treat a unique violation as a conflict.
+     * The id and timestamps must already be set.
+     *
+     * @param user User
+     * @return true if inserted, false if the email already exists
+     */
+    @Override
+    public boolean insertIfAbsent(final User user) {
+        if (isPostgreSQL()) {
+            return jdbcTemplate.update(INSERT_IF_ABSENT_SQL, ps -> bind(ps, user)) == 1;
+        }
+
+        try {
+            return jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, user)) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean isPostgreSQL() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static void bind(final PreparedStatement ps, final User user) throws SQLException {
+        ps.setObject(1, user.getId());
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getPassword());
+        ps.setString(4, user.getName());
+        ps.setString(5, user.getLastName());
+        ps.setString(6, user.getPhoneNumber());
+        ps.setString(7, user.getGender());
+        ps.setTimestamp(8, user.getBirthDate() != null ? Timestamp.valueOf(user.getBirthDate()) : null);
+        ps.setObject(9, user.getRole().getId());
+        ps.setTimestamp(10, Timestamp.valueOf(user.getCreatedAt()));
+        ps.setTimestamp(11, Timestamp.valueOf(user.getUpdatedAt()));
+    }
+}
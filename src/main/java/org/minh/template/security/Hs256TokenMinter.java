@@ -0,0 +1,252 @@
+package org.minh.template.security;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Hs256TokenMinter phát hành JWT HS256 cho bộ claim cố định của hệ thống (jti, sub, iat, exp, email, role, atd, rme)
+// mà không đi qua JwtBuilder của jjwt (Map claim + Jackson + Base64 nhiều lần cho mỗi token).
+// - Header {"alg":"HS256"} được mã hóa Base64URL sẵn một lần.
+// - Payload JSON được ghi trực tiếp dưới dạng byte vào buffer dùng lại, rồi mã hóa Base64URL tại chỗ.
+// - Mac (đã init sẵn khóa, không thread-safe) và buffer được mượn từ một pool nhỏ, mỗi lần mint giữ riêng một bộ.
+//   Không dùng ThreadLocal: với virtual thread mỗi request là một thread mới, ThreadLocal sẽ tạo lại Mac mỗi lần.
+//   Pool rỗng thì tạo bộ mới, pool đầy thì bỏ bộ vừa dùng.
+// Kết quả là token chuẩn, được parser của jjwt kiểm tra chữ ký và đọc claim như token do JwtBuilder tạo ra.
+public final class Hs256TokenMinter {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final byte[] HEADER = Base64.getUrlEncoder().withoutPadding()
+            .encode("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.US_ASCII));
+
+    private static final byte[] BASE64_URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private final SecretKeySpec secretKey;
+
+    private final Queue<Buffers> pool;
+
+    /**
+     * Create minter.
+     *
+     * @param key byte[] HMAC key, the same bytes the parser verifies with
+     */
+    public Hs256TokenMinter(final byte[] key) {
+        this.secretKey = new SecretKeySpec(key, ALGORITHM);
+        // Mint chỉ dùng CPU, số lần mint đồng thời không vượt quá số carrier thread.
+        this.pool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+        // Tạo sẵn một Mac để báo lỗi khóa ngay khi khởi động thay vì ở request đầu tiên.
+        pool.offer(new Buffers(newMac(secretKey)));
+    }
+
+    /**
+     * Mint a signed token.
+     *
+     * @param jti               UUID token id
+     * @param subject           String user id
+     * @param email             String, written together with role only when both are not null
+     * @param role              String
+     * @param issuedAt          long issued at in milliseconds (truncated to seconds like jjwt)
+     * @param expiresIn         long lifetime in milliseconds
+     * @param accessTokenDigest String atd claim, null to omit
+     * @param rememberMe        Boolean rme claim, null to omit
+     * @return String compact JWS
+     */
+    public String mint(final UUID jti, final String subject, final String email, final String role,
+                       final long issuedAt, final long expiresIn, final String accessTokenDigest,
+                       final Boolean rememberMe) {
+        Buffers b = pool.poll();
+        if (b == null) {
+            b = new Buffers(newMac(secretKey));
+        }
+        ByteWriter json = b.json;
+        json.reset();
+        json.ascii("{\"jti\":\"").uuid(jti).ascii("\",\"sub\":").string(subject)
+                .ascii(",\"iat\":").number(issuedAt / 1000)
+                .ascii(",\"exp\":").number((issuedAt + expiresIn) / 1000);
+        if (email != null && role != null) {
+            json.ascii(",\"email\":").string(email).ascii(",\"role\":").string(role);
+        }
+        if (accessTokenDigest != null) {
+            json.ascii(",\"atd\":").string(accessTokenDigest);
+        }
+        if (rememberMe != null) {
+            json.ascii(",\"rme\":").ascii(rememberMe ? "true" : "false");
+        }
+        json.ascii("}");
+
+        ByteWriter token = b.token;
+        token.reset();
+        token.bytes(HEADER, HEADER.length).ascii(".").base64Url(json.buf, json.len);
+        try {
+            b.mac.update(token.buf, 0, token.len);
+            b.mac.doFinal(b.signature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        token.ascii(".").base64Url(b.signature, SIGNATURE_LENGTH);
+        String result = new String(token.buf, 0, token.len, StandardCharsets.ISO_8859_1);
+        pool.offer(b);
+
+        return result;
+    }
+
+    private static Mac newMac(final SecretKeySpec secretKey) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static final class Buffers {
+        private final Mac mac;
+
+        private final ByteWriter json = new ByteWriter(512);
+
+        private final ByteWriter token = new ByteWriter(1024);
+
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+        private Buffers(final Mac mac) {
+            this.mac = mac;
+        }
+    }
+
+    // Buffer byte tự giãn, tại một thời điểm chỉ một lần mint dùng.
+    private static final class ByteWriter {
+        private byte[] buf;
+
+        private int len;
+
+        private ByteWriter(final int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void reset() {
+            len = 0;
+        }
+
+        private void ensure(final int extra) {
+            if (len + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+            }
+        }
+
+        private ByteWriter ascii(final String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                buf[len++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        private ByteWriter bytes(final byte[] value, final int length) {
+            ensure(length);
+            System.arraycopy(value, 0, buf, len, length);
+            len += length;
+            return this;
+        }
+
+        private ByteWriter number(final long value) {
+            return ascii(Long.toString(value));
+        }
+
+        private ByteWriter uuid(final UUID value) {
+            ensure(36);
+            hex(value.getMostSignificantBits() >>> 32, 8);
+            buf[len++] = '-';
+            hex(value.getMostSignificantBits() >>> 16, 4);
+            buf[len++] = '-';
+            hex(value.getMostSignificantBits(), 4);
+            buf[len++] = '-';
+            hex(value.getLeastSignificantBits() >>> 48, 4);
+            buf[len++] = '-';
+            hex(value.getLeastSignificantBits(), 12);
+            return this;
+        }
+
+        private void hex(final long value, final int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                buf[len + i] = HEX[(int) ((value >>> ((digits - 1 - i) * 4)) & 0xF)];
+            }
+            len += digits;
+        }
+
+        // Chuỗi JSON có escape theo RFC 8259, ký tự ngoài ASCII được ghi dưới dạng UTF-8.
+        private ByteWriter string(final String value) {
+            // Tối đa 6 byte cho mỗi ký tự (ký tự điều khiển được escape thành 6 byte), cộng hai dấu nháy.
+            ensure(value.length() * 6 + 2);
+            buf[len++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buf[len++] = '\\';
+                    buf[len++] = (byte) c;
+                } else if (c < 0x20) {
+                    buf[len++] = '\\';
+                    buf[len++] = 'u';
+                    buf[len++] = '0';
+                    buf[len++] = '0';
+                    buf[len++] = HEX[c >> 4];
+                    buf[len++] = HEX[c & 0xF];
+                } else if (c < 0x80) {
+                    buf[len++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[len++] = (byte) (0xC0 | (c >> 6));
+                    buf[len++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buf[len++] = (byte) (0xF0 | (cp >> 18));
+                    buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[len++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    buf[len++] = (byte) (0xE0 | (c >> 12));
+                    buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[len++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            buf[len++] = '"';
+            return this;
+        }
+
+        // Base64URL không padding, như JWS yêu cầu.
+        private ByteWriter base64Url(final byte[] src, final int length) {
+            ensure((length + 2) / 3 * 4);
+            int i = 0;
+            for (; i + 3 <= length; i += 3) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+                buf[len++] = BASE64_URL[bits >>> 18];
+                buf[len++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                buf[len++] = BASE64_URL[(bits >>> 6) & 0x3F];
+                buf[len++] = BASE64_URL[bits & 0x3F];
+            }
+            int remaining = length - i;
+            if (remaining == 1) {
+                int bits = (src[i] & 0xFF) << 16;
+                buf[len++] = BASE64_URL[bits >>> 18];
+                buf[len++] = BASE64_URL[(bits >>> 12) & 0x3F];
+            } else if (remaining == 2) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+                buf[len++] = BASE64_URL[bits >>> 18];
+                buf[len++] = BASE64_URL[(bits >>> 12) & 0x3F];
+                buf[len++] = BASE64_URL[(bits >>> 6) & 0x3F];
+            }
+            return this;
+        }
+    }
+}
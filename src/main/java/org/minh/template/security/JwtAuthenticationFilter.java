@@ -9,8 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.minh.template.service.user.UserService;
 import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -30,10 +30,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final UserService userService;
 
-    // authenticationManager là một thành phần của Spring Security, chịu trách nhiệm xác thực thông tin đăng nhập của người dùng.
-    // AuthenticationManager được định nghĩa bên trong CustomAuthenticationManager
-    private final AuthenticationManager authenticationManager;
-
     @Override
     // doFilterInternal là một phương thức trừu tượng (abstract) trong lớp OncePerRequestFilter
     // doFilterInternal là nơi cài đặt logic xử lý filter cho từng request HTTP, và chỉ chạy một lần duy nhất cho mỗi request.
@@ -44,33 +40,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Lấy token từ request thông qua jwtTokenProvider.extractJwtFromRequest(request).
         String token = jwtTokenProvider.extractJwtFromRequest(request);
 
-        // Kiểm tra xem token có hợp lệ hay không bằng cách sử dụng jwtTokenProvider.validateToken
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token, request)) {
+        // Kiểm tra xem token có hợp lệ hay không bằng cách sử dụng jwtTokenProvider.verifyToken
+        // Token chỉ được giải mã một lần, kết quả (ParsedToken) được dùng lại ở các bước sau.
+        ParsedToken parsedToken = StringUtils.hasText(token) ? jwtTokenProvider.verifyToken(token, request) : null;
+        if (parsedToken != null) {
 
-            // Nếu token hợp lệ, lấy user ID từ token
-            String id = jwtTokenProvider.getUserIdFromToken(token);
-            // Tải thông tin người dùng từ UserService bằng ID
+            // Nếu token hợp lệ, dựng UserDetails trực tiếp từ các claim đã được ký (id, email, role) -> không truy vấn database.
             // (interface của Spring Security), chứa các thông tin như tên đăng nhập, mật khẩu, quyền hạn, trạng thái tài khoản,...
             // Bắt buộc có UserDetail để Spring Security có thể xác thực người dùng và thiết lập quyền truy cập.
-            UserDetails user = userService.loadUserById(id);
-
+            UserDetails user = jwtTokenProvider.getPrincipal(parsedToken);
+            if (user == null) {
+                // Token cũ chưa có claim email/role: tải thông tin người dùng từ UserService bằng ID như trước.
+                user = userService.loadUserById(parsedToken.getSubject());
+            }
 
             if (Objects.nonNull(user)) {
-                // Nếu người dùng không null, tạo một đối tượng UsernamePasswordAuthenticationToken
+                // Token đã được xác thực chữ ký và phiên, nên không cần đi qua AuthenticationManager nữa:
+                // đặt thẳng đối tượng xác thực vào SecurityContext để Spring Security biết user và quyền của request này.
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-
-                /*
-                * authenticationManager là một thành phần của Spring Security, chịu trách nhiệm xác thực thông tin đăng nhập của người dùng.
-                    Khi gọi authenticate(auth), Spring Security sẽ kiểm tra đối tượng auth (ở đây là UsernamePasswordAuthenticationToken chứa thông tin user và quyền hạn).
-                    Cơ chế hoạt động:
-                     1. AuthenticationManager sẽ chuyển đối tượng auth cho các AuthenticationProvider đã cấu hình trong hệ thống.
-                     2. Mỗi AuthenticationProvider sẽ kiểm tra xem có xử lý được loại xác thực này không (ở đây là xác thực bằng username/password).
-                     3. Nếu đúng, nó sẽ kiểm tra thông tin user (ví dụ: tài khoản có bị khóa, có đúng quyền, có hợp lệ không...).
-                     4. Nếu xác thực thành công, nó trả về một đối tượng Authentication đã được xác thực (có thông tin user, quyền hạn, trạng thái...).
-                     5. Nếu thất bại, nó sẽ ném ra exception (ví dụ: BadCredentialsException).
-                * */
-                authenticationManager.authenticate(auth);
+                SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
 
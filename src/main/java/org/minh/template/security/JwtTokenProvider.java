@@ -1,20 +1,19 @@
 package org.minh.template.security;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.minh.template.entity.JwtToken;
 import org.minh.template.entity.User;
 import org.minh.template.exception.NotFoundException;
+import org.minh.template.repository.JwtSessionStore;
 import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.TokenRevocationService;
 import org.minh.template.service.user.UserService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -22,7 +21,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.security.Key;
-import java.util.Date;
 import java.util.UUID;
 
 import static org.minh.template.util.Constants.TOKEN_HEADER;
@@ -31,20 +29,44 @@ import static org.minh.template.util.Constants.TOKEN_TYPE;
 @Component
 @Slf4j
 public class JwtTokenProvider {
+    // Claim chứa email và role của user, được ký cùng token để filter dựng principal mà không cần truy vấn database.
+    public static final String CLAIM_EMAIL = "email";
+
+    public static final String CLAIM_ROLE = "role";
+
+    // Claim của refresh token: digest của access token cùng phiên và cờ remember me.
+    // Nhờ đó refresh có thể xoay phiên trong Redis bằng một script duy nhất mà không phải đọc phiên cũ trước.
+    public static final String CLAIM_ACCESS_TOKEN_DIGEST = "atd";
+
+    public static final String CLAIM_REMEMBER_ME = "rme";
+
     private final UserService userService;
 
-    private final String appSecret;
+    private final Key signingKey;
+
+    private final JwtParser jwtParser;
+
+    private final Hs256TokenMinter tokenMinter;
 
     @Getter
     private final Long tokenExpiresIn;
 
     @Getter
-    private Long refreshTokenExpiresIn;
+    private final Long refreshTokenExpiresIn;
+
+    // Hai chính sách phát hành token được tạo sẵn một lần. Không còn field nào bị ghi đè sau khi khởi động,
+    // nên phát hành token không cần khóa và chạy song song an toàn.
+    private final TokenPolicy defaultPolicy;
 
-    private final Long rememberMeTokenExpiresIn;
+    private final TokenPolicy rememberMePolicy;
 
     private final JwtTokenService jwtTokenService;
 
+    private final TokenRevocationService tokenRevocationService;
+
+    // true khi app.jwt.validation-mode=stateless: không tra Redis mỗi request, chỉ kiểm tra jti qua Bloom filter thu hồi.
+    private final boolean stateless;
+
     private final HttpServletRequest httpServletRequest;
 
     public JwtTokenProvider(
@@ -52,16 +74,25 @@ public class JwtTokenProvider {
             @Value("${app.jwt.token.expires-in}") final Long tokenExpiresIn,
             @Value("${app.jwt.refresh-token.expires-in}") final Long refreshTokenExpiresIn,
             @Value("${app.jwt.remember-me.expires-in}") final Long rememberMeTokenExpiresIn,
+            @Value("${app.jwt.validation-mode:session}") final String validationMode,
             final UserService userService,
             final JwtTokenService jwtTokenService,
+            final TokenRevocationService tokenRevocationService,
             final HttpServletRequest httpServletRequest
     ) {
         this.userService = userService;
-        this.appSecret = appSecret;
+        // Khóa ký và parser được tạo một lần khi khởi động. JwtParser là immutable nên dùng chung giữa các thread được.
+        this.signingKey = Keys.hmacShaKeyFor(appSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        // Token được phát hành bằng minter riêng cho bộ claim cố định, cùng khóa với parser.
+        this.tokenMinter = new Hs256TokenMinter(signingKey.getEncoded());
         this.tokenExpiresIn = tokenExpiresIn;
         this.refreshTokenExpiresIn = refreshTokenExpiresIn;
-        this.rememberMeTokenExpiresIn = rememberMeTokenExpiresIn;
+        this.defaultPolicy = TokenPolicy.of(tokenExpiresIn, refreshTokenExpiresIn, false);
+        this.rememberMePolicy = TokenPolicy.of(tokenExpiresIn, rememberMeTokenExpiresIn, true);
         this.jwtTokenService = jwtTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.stateless = "stateless".equalsIgnoreCase(validationMode);
         this.httpServletRequest = httpServletRequest;
     }
 
@@ -69,12 +100,56 @@ public class JwtTokenProvider {
      * Tạo JWT token hoặc JWT refresh token mới dựa trên userId và thời gian hết hạn.
      */
     public String generateTokenByUserId(final String id, final Long expires) { // Nhận vào userId và thời gian hết hạn
-        String token = Jwts.builder() // Sử dụng Jwts.builder() để tạo một JWT token mới
-                .setSubject(id) // Thiết lập subject của token là userId (thường thì subject luôn là userId hoặc username, đôi khi để email cũng được)
-                .setIssuedAt(new Date()) // Thiết lập thời gian phát hành token là thời điểm hiện tại
-                .setExpiration(getExpireDate(expires)) // Thiết lập thời gian hết hạn của token bằng cách gọi hàm getExpireDate với tham số expires
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // Sử dụng hàm signWith để ký token bằng khóa bí mật (appSecret) và thuật toán HS256
-                .compact(); // Gọi hàm compact() để hoàn thành việc xây dựng token và trả về chuỗi token đã được mã hóa
+        return buildToken(id, null, null, expires, null, null);
+    }
+
+    /**
+     * Tạo JWT token hoặc JWT refresh token mới, kèm claim email và role của user.
+     * Khi role của user thay đổi, các phiên hiện có phải bị thu hồi để token mới mang role mới.
+     */
+    public String generateTokenByUser(final User user, final Long expires) {
+        return buildToken(user.getId().toString(), user.getEmail(), user.getRole().getName().getValue(), expires,
+                null, null);
+    }
+
+    /**
+     * Tạo access token từ id, email và role (lấy từ user hoặc từ claim của refresh token), không cần entity User.
+     * Thời gian sống lấy từ TokenPolicy của request hiện tại.
+     */
+    public String generateJwt(final String id, final String email, final String role, final TokenPolicy policy) {
+        return buildToken(id, email, role, policy.getAccessTokenExpiresIn(), null, null);
+    }
+
+    /**
+     * Tạo refresh token gắn với access token cùng phiên. Refresh token mang digest của access token và cờ remember me
+     * để lần refresh sau xoay phiên trong Redis chỉ với một round-trip.
+     */
+    public String generateRefresh(final String id, final String email, final String role, final String accessToken,
+                                  final TokenPolicy policy) {
+        return buildToken(id, email, role, policy.getRefreshTokenExpiresIn(), JwtSessionStore.digest(accessToken),
+                policy.isRememberMe());
+    }
+
+    /**
+     * Đây là phương thức để tạo JWT token cho người dùng, kèm claim email và role.
+     */
+    public String generateJwt(final User user) {
+        return generateTokenByUser(user, tokenExpiresIn);
+    }
+
+    /**
+     * Đây là phương thức để tạo JWT refresh token cho người dùng, kèm claim email và role.
+     */
+    public String generateRefresh(final User user) {
+        return generateTokenByUser(user, refreshTokenExpiresIn);
+    }
+
+    private String buildToken(final String id, final String email, final String role, final Long expires,
+                              final String accessTokenDigest, final Boolean rememberMe) {
+        // jti: định danh duy nhất của token, dùng để thu hồi token ở chế độ stateless.
+        // sub là userId, iat là thời điểm hiện tại, exp = iat + expires; email và role chỉ ghi khi có đủ cả hai.
+        String token = tokenMinter.mint(UUID.randomUUID(), id, email, role, System.currentTimeMillis(), expires,
+                accessTokenDigest, rememberMe);
         log.trace("Token is added to the local cache for userID: {}, ttl: {}", id, expires);
 
         return token;
@@ -110,9 +185,7 @@ public class JwtTokenProvider {
      * Trả về userId dưới dạng chuỗi.
      */
     public String getUserIdFromToken(final String token) {
-        Claims claims = parseToken(token).getBody();
-
-        return claims.getSubject();
+        return parseToken(token).getSubject();
     }
 
     /**
@@ -122,8 +195,18 @@ public class JwtTokenProvider {
      * @return User
      */
     public User getUserFromToken(final String token) {
+        return getUserFromToken(parseToken(token));
+    }
+
+    /**
+     * Get user from an already parsed token.
+     *
+     * @param parsedToken ParsedToken
+     * @return User
+     */
+    public User getUserFromToken(final ParsedToken parsedToken) {
         try {
-            return userService.findById(UUID.fromString(getUserIdFromToken(token)));
+            return userService.findById(UUID.fromString(parsedToken.getSubject()));
         } catch (NotFoundException e) {
             return null;
         }
@@ -143,24 +226,49 @@ public class JwtTokenProvider {
      *  Kiểm tra xem JWT token có hợp lệ không.
      */
     public boolean validateToken(final String token, final boolean isHttp) {
-        parseToken(token); // Giải mã và xác thực token bằng khóa bí mật. Nếu token sai định dạng hoặc bị giả mạo sẽ ném lỗi.
-        try {
-            JwtToken jwtToken = jwtTokenService.findByTokenOrRefreshToken(token); // để kiểm tra token có tồn tại trong hệ thống  Redis?
+        return verifyToken(token) != null;
+    }
+
+    /**
+     * Giải mã token đúng một lần, kiểm tra token còn tồn tại trong Redis và chưa hết hạn.
+     * Trả về ParsedToken để nơi gọi dùng lại (subject, expiry, claims...) mà không cần parse lại, hoặc null nếu token không hợp lệ.
+     */
+    public ParsedToken verifyToken(final String token) {
+        ParsedToken parsedToken = parseToken(token); // Giải mã và xác thực token bằng khóa bí mật. Nếu token sai định dạng hoặc bị giả mạo sẽ ném lỗi.
+        if (stateless && parsedToken.getId() != null) {
+            // Chế độ stateless: chỉ khi Bloom filter báo "có thể đã bị thu hồi" mới kiểm tra chính xác trong Redis.
+            if (tokenRevocationService.isRevoked(parsedToken)) {
+                log.error("[JWT] Token has been revoked");
+                return null;
+            }
+
+            return parsedToken.isExpired() ? null : parsedToken;
+        }
 
+        try {
+            jwtTokenService.findByTokenOrRefreshToken(token); // để kiểm tra token có tồn tại trong hệ thống  Redis?
         } catch (NotFoundException e) {
             log.error("[JWT] Token could not found in Redis");
-            return false;
+            return null;
         }
 
-        return !isTokenExpired(token); // Nếu token hợp lệ và tồn tại, kiểm tra tiếp token đã hết hạn chưa
+        return parsedToken.isExpired() ? null : parsedToken; // Nếu token hợp lệ và tồn tại, kiểm tra tiếp token đã hết hạn chưa
     }
 
     /**
      * Mục đích: Kiểm tra tính hợp lệ của JWT token và ghi chú lỗi vào request nếu token không hợp lệ.
      */
     public boolean validateToken(final String token, final HttpServletRequest httpServletRequest) {
+        return verifyToken(token, httpServletRequest) != null;
+    }
+
+    /**
+     * Giống validateToken(token, request) nhưng trả về ParsedToken (hoặc null) để filter dùng lại kết quả đã giải mã.
+     */
+    public ParsedToken verifyToken(final String token, final HttpServletRequest httpServletRequest) {
         try {
-            boolean isTokenValid = validateToken(token); // Gọi hàm validateToken(token) để kiểm tra token có hợp lệ không (chữ ký đúng, còn hạn, tồn tại trong cache/Redis).
+            ParsedToken parsedToken = verifyToken(token); // Gọi hàm verifyToken(token) để kiểm tra token có hợp lệ không (chữ ký đúng, còn hạn, tồn tại trong cache/Redis).
+            boolean isTokenValid = parsedToken != null;
             // Nếu token không hợp lệ, ghi log lỗi và gắn thuộc tính "notfound" vào request để báo lỗi cho phía client.
             //Nếu token hợp lệ, trả về true.
             //Nếu có exception khi kiểm tra token:
@@ -171,7 +279,7 @@ public class JwtTokenProvider {
                 log.error("[JWT] Token could not found in local cache");
                 httpServletRequest.setAttribute("notfound", "Token is not found in cache");
             }
-            return isTokenValid;
+            return parsedToken;
         } catch (UnsupportedJwtException e) {
             log.error("[JWT] Unsupported JWT token!");
             httpServletRequest.setAttribute("unsupported", "Unsupported JWT token!");
@@ -186,14 +294,18 @@ public class JwtTokenProvider {
             httpServletRequest.setAttribute("illegal", "JWT claims string is empty.");
         }
 
-        return false;
+        return null;
     }
 
     /**
-     * Set jwt refresh token for remember me option.
+     * Chính sách phát hành token (thời gian sống của access token, refresh token và phiên trong Redis) theo cờ
+     * remember me. Thay cho setRememberMe() cũ vốn ghi đè refreshTokenExpiresIn của singleton.
+     *
+     * @param rememberMe boolean
+     * @return TokenPolicy
      */
-    public void setRememberMe() {
-        this.refreshTokenExpiresIn = rememberMeTokenExpiresIn;
+    public TokenPolicy getTokenPolicy(final boolean rememberMe) {
+        return rememberMe ? rememberMePolicy : defaultPolicy;
     }
 
     /**
@@ -222,39 +334,35 @@ public class JwtTokenProvider {
 
     /**
      * Hàm này dùng để giải mã (parse) chuỗi JWT token.
-     * Sử dụng thư viện io.jsonwebtoken để tạo một parser, thiết lập khóa bí mật (signing key) dùng để xác thực token.
-     * Sau đó, gọi parseClaimsJws(token) để kiểm tra tính hợp lệ và lấy ra thông tin (claims) bên trong token.
-     * Kết quả trả về là một đối tượng Jws<Claims> chứa toàn bộ thông tin đã giải mã từ token.
+     * Sử dụng parser đã được tạo sẵn (chứa khóa bí mật) để kiểm tra chữ ký và hạn dùng của token.
+     * Kết quả trả về là một ParsedToken (immutable) chứa toàn bộ thông tin đã giải mã từ token.
      */
-    private Jws<Claims> parseToken(final String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+    public ParsedToken parseToken(final String token) {
+        return ParsedToken.of(token, jwtParser.parseClaimsJws(token).getBody());
     }
 
     /**
-     * Check token is expired or not.
-     *
-     * @param token String jwt token to get expiration date
-     * @return True or False
+     * Dựng principal trực tiếp từ các claim đã được ký (id, email, role), không truy vấn database.
+     * Trả về null nếu token được phát hành trước khi có claim email/role.
      */
-    private boolean isTokenExpired(final String token) {
-        return parseToken(token).getBody().getExpiration().before(new Date());
-    }
+    public JwtUserDetails getPrincipal(final ParsedToken parsedToken) {
+        Object email = parsedToken.getClaim(CLAIM_EMAIL);
+        Object role = parsedToken.getClaim(CLAIM_ROLE);
+        if (email == null || role == null) {
+            return null;
+        }
 
-    /**
-     * Get expire date.
-     *
-     * @return Date object
-     */
-    private Date getExpireDate(final Long expires) {
-        return new Date(new Date().getTime() + expires);
+        return JwtUserDetails.create(parsedToken.getSubject(), email.toString(), role.toString());
     }
 
     /**
-     * Get signing key.
-     *
-     * @return Key
+     * Giải mã token nhưng không ném lỗi: trả về null nếu token sai chữ ký, sai định dạng hoặc đã hết hạn.
      */
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(appSecret.getBytes());
+    public ParsedToken parseTokenQuietly(final String token) {
+        try {
+            return parseToken(token);
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
 }
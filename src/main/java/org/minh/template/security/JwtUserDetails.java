@@ -3,11 +3,9 @@ package org.minh.template.security;
 import lombok.Data;
 import org.minh.template.entity.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.List;
 
 @Data // Dùng để sinh ra các phương thức getter, setter, toString, equals, và hashCode tự động.
 // UserDetails: Only defines the methods (interface).
@@ -47,9 +45,21 @@ public final class JwtUserDetails implements UserDetails {
      * @return JwtUserDetails
      */
     public static JwtUserDetails create(final User user) {
-        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(String.valueOf(user.getRole())));
+        // Danh sách quyền dùng chung theo role, không tạo mới cho mỗi lần dựng principal.
+        return new JwtUserDetails(user.getId().toString(), user.getEmail(), user.getPassword(),
+                RoleAuthorities.of(user.getRole().getName()));
+    }
 
-        return new JwtUserDetails(user.getId().toString(), user.getEmail(), user.getPassword(), authorities);
+    /**
+     * Create JwtUserDetails from verified token claims (no password).
+     *
+     * @param id    String
+     * @param email String
+     * @param role  String
+     * @return JwtUserDetails
+     */
+    public static JwtUserDetails create(final String id, final String email, final String role) {
+        return new JwtUserDetails(id, email, null, RoleAuthorities.of(role));
     }
 
     @Override
@@ -0,0 +1,64 @@
+package org.minh.template.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+@Getter
+// ParsedToken là kết quả của việc giải mã và xác thực chữ ký JWT đúng một lần.
+// Filter và các service dùng lại đối tượng này thay vì parse lại chuỗi token nhiều lần trong cùng một request.
+public final class ParsedToken {
+    private final String token;
+
+    private final String id;
+
+    private final String subject;
+
+    private final Date issuedAt;
+
+    private final Date expiration;
+
+    private final Map<String, Object> claims;
+
+    private ParsedToken(final String token, final Claims claims) {
+        this.token = token;
+        this.id = claims.getId();
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    /**
+     * Create ParsedToken from verified claims.
+     *
+     * @param token  String raw jwt token
+     * @param claims Claims already verified by the parser
+     * @return ParsedToken
+     */
+    public static ParsedToken of(final String token, final Claims claims) {
+        return new ParsedToken(token, claims);
+    }
+
+    /**
+     * Get a custom claim.
+     *
+     * @param name String claim name
+     * @return claim value or null
+     */
+    public Object getClaim(final String name) {
+        return claims.get(name);
+    }
+
+    /**
+     * Check token is expired or not.
+     *
+     * @return True or False
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
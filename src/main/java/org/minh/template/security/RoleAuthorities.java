@@ -0,0 +1,55 @@
+package org.minh.template.security;
+
+import org.minh.template.util.Constants;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Danh sách quyền (authorities) của từng role được tạo sẵn một lần và dùng chung.
+// SimpleGrantedAuthority và List.of(...) đều immutable, nên JwtUserDetails của mọi request có thể trỏ tới cùng một
+// instance thay vì tạo list mới cho mỗi lần dựng principal.
+public final class RoleAuthorities {
+    private static final Map<Constants.RoleEnum, List<GrantedAuthority>> BY_ROLE =
+            new EnumMap<>(Constants.RoleEnum.class);
+
+    private static final Map<String, List<GrantedAuthority>> BY_NAME = new HashMap<>();
+
+    static {
+        for (Constants.RoleEnum role : Constants.RoleEnum.values()) {
+            List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role.getValue()));
+            BY_ROLE.put(role, authorities);
+            BY_NAME.put(role.name(), authorities);
+            BY_NAME.put(role.getValue(), authorities);
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * Get shared authorities of a role.
+     *
+     * @param role Constants.RoleEnum
+     * @return List of GrantedAuthority (immutable, shared)
+     */
+    public static List<GrantedAuthority> of(final Constants.RoleEnum role) {
+        return BY_ROLE.get(role);
+    }
+
+    /**
+     * Get shared authorities of a role by name (role claim of the token).
+     * Role không có trong RoleEnum vẫn được chấp nhận nhưng sẽ tạo list mới.
+     *
+     * @param role String
+     * @return List of GrantedAuthority
+     */
+    public static List<GrantedAuthority> of(final String role) {
+        List<GrantedAuthority> authorities = BY_NAME.get(role);
+
+        return authorities != null ? authorities : List.of(new SimpleGrantedAuthority(role));
+    }
+}
@@ -0,0 +1,43 @@
+package org.minh.template.security;
+
+import lombok.Getter;
+
+@Getter
+// TokenPolicy là chính sách phát hành token của một lần đăng nhập/refresh: thời gian sống của access token,
+// của refresh token và cờ remember me. Đối tượng immutable, được truyền qua từng lời gọi thay vì ghi vào field
+// của JwtTokenProvider (singleton), nên nhiều request phát hành token song song không ảnh hưởng lẫn nhau.
+public final class TokenPolicy {
+    private final long accessTokenExpiresIn;
+
+    private final long refreshTokenExpiresIn;
+
+    private final boolean rememberMe;
+
+    private TokenPolicy(final long accessTokenExpiresIn, final long refreshTokenExpiresIn, final boolean rememberMe) {
+        if (accessTokenExpiresIn <= 0 || refreshTokenExpiresIn <= 0) {
+            throw new IllegalArgumentException("Token lifetimes must be positive");
+        }
+        this.accessTokenExpiresIn = accessTokenExpiresIn;
+        this.refreshTokenExpiresIn = refreshTokenExpiresIn;
+        this.rememberMe = rememberMe;
+    }
+
+    /**
+     * Create token policy.
+     *
+     * @param accessTokenExpiresIn  long access token lifetime in milliseconds
+     * @param refreshTokenExpiresIn long refresh token (and session) lifetime in milliseconds
+     * @param rememberMe            boolean
+     * @return TokenPolicy
+     */
+    public static TokenPolicy of(final long accessTokenExpiresIn, final long refreshTokenExpiresIn,
+                                 final boolean rememberMe) {
+        return new TokenPolicy(accessTokenExpiresIn, refreshTokenExpiresIn, rememberMe);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenPolicy(access=" + accessTokenExpiresIn + ", refresh=" + refreshTokenExpiresIn
+                + ", rememberMe=" + rememberMe + ")";
+    }
+}
@@ -1,12 +1,15 @@
 package org.minh.template.service.auth;
 
 import org.minh.template.dto.response.auth.TokenResponse;
+import org.minh.template.entity.JwtToken;
 import org.minh.template.entity.User;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthService {
-    TokenResponse login(String email, String password, Boolean rememberMe);
+    CompletableFuture<TokenResponse> login(String email, String password, Boolean rememberMe);
 
     TokenResponse refreshFromBearerString(String bearer);
 
@@ -14,7 +17,13 @@ public interface AuthService {
 
     void logout(User user);
 
+    void logoutAll(User user);
+
+    List<JwtToken> getSessions(User user);
+
     TokenResponse refresh(String refreshToken);
 
     TokenResponse generateTokens(UUID id, Boolean rememberMe);
+
+    TokenResponse generateTokens(User user, Boolean rememberMe);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.minh.template.service.auth;
 
 import org.minh.template.entity.JwtToken;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface JwtTokenService {
@@ -9,7 +10,13 @@ public interface JwtTokenService {
 
     JwtToken findByTokenOrRefreshToken(String token);
 
-    void save(JwtToken jwtToken);
+    List<JwtToken> findAllByUserId(UUID userId);
+
+    List<JwtToken> save(JwtToken jwtToken);
 
     void delete(JwtToken jwtToken);
+
+    List<JwtToken> deleteAllByUserId(UUID userId);
+
+    JwtToken rotate(String refreshToken, String accessTokenDigest, JwtToken jwtToken);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package org.minh.template.service.auth;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface PasswordHashingService {
+    CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword);
+
+    CompletableFuture<String> encode(CharSequence rawPassword);
+
+    List<String> encodeAll(List<? extends CharSequence> rawPasswords);
+}
@@ -0,0 +1,14 @@
+package org.minh.template.service.auth;
+
+import org.minh.template.entity.JwtToken;
+import org.minh.template.security.ParsedToken;
+
+import java.util.Collection;
+
+public interface TokenRevocationService {
+    void revoke(ParsedToken... parsedTokens);
+
+    void revokeSessions(Collection<JwtToken> jwtTokens);
+
+    boolean isRevoked(ParsedToken parsedToken);
+}
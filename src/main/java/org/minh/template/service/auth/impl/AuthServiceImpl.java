@@ -1,5 +1,6 @@
 package org.minh.template.service.auth.impl;
 
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,19 +10,24 @@ import org.minh.template.entity.User;
 import org.minh.template.exception.NotFoundException;
 import org.minh.template.exception.RefreshTokenExpiredException;
 import org.minh.template.security.JwtTokenProvider;
-import org.minh.template.security.JwtUserDetails;
+import org.minh.template.security.ParsedToken;
+import org.minh.template.security.TokenPolicy;
 import org.minh.template.service.MessageSourceService;
 import org.minh.template.service.auth.AuthService;
 import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.minh.template.service.auth.TokenRevocationService;
 import org.minh.template.service.user.UserService;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.minh.template.util.Constants.TOKEN_HEADER;
 
@@ -33,49 +39,57 @@ public class AuthServiceImpl implements AuthService {
 
     private final JwtTokenService jwtTokenService;
 
-    private final AuthenticationManager authenticationManager;
-
     private final JwtTokenProvider jwtTokenProvider;
 
     private final HttpServletRequest httpServletRequest;
 
     private final MessageSourceService messageSourceService;
 
+    private final TokenRevocationService tokenRevocationService;
+
+    private final PasswordHashingService passwordHashingService;
+
+    // Executor của ứng dụng (Spring Boot, virtual thread khi bật spring.threads.virtual.enabled) cho phần I/O sau BCrypt.
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
     /**
-     * Authenticate user.
+     * Authenticate user. So khớp BCrypt chạy trên pool băm mật khẩu riêng, thread của request được giải phóng ngay;
+     * ghi phiên vào Redis chạy tiếp trên executor của ứng dụng để thread băm mật khẩu không phải chờ I/O.
      *
      * @param email      String
      * @param password   String
      * @param rememberMe Boolean
-     * @return TokenResponse
+     * @return CompletableFuture of TokenResponse
      */
     @Override
-    @Transactional
-    public TokenResponse login(String email, final String password, final Boolean rememberMe) {
+    public CompletableFuture<TokenResponse> login(String email, final String password, final Boolean rememberMe) {
         log.info("Login request received: {}", email);
 
         String badCredentialsMessage = messageSourceService.get("Unauthorized");
 
-        User user = null;
+        User user;
         try {
-            user = userService.findByEmail(email);
-            email = user.getEmail();
+            // Một câu SQL duy nhất cho cả luồng login: users JOIN FETCH roles, đọc từ database chính vì cache user
+            // không lưu hash mật khẩu.
+            user = userService.findCredentialsByEmail(email);
         } catch (NotFoundException e) {
             log.error("User not found with email: {}", email);
             throw new AuthenticationCredentialsNotFoundException(badCredentialsMessage);
         }
 
-        UsernamePasswordAuthenticationToken authenticationToken =
-                new UsernamePasswordAuthenticationToken(email, password);
-        try {
-            Authentication authentication = authenticationManager.authenticate(authenticationToken);
-            JwtUserDetails jwtUserDetails = jwtTokenProvider.getPrincipal(authentication);
+        // HttpServletRequest là request-scoped, phải đọc trên thread của request trước khi chuyển sang pool.
+        String ipAddress = httpServletRequest.getRemoteAddr();
+        String userAgent = httpServletRequest.getHeader("User-Agent");
 
-            return generateTokens(UUID.fromString(jwtUserDetails.getId()), rememberMe);
-        } catch (NotFoundException e) {
-            log.error("Authentication failed for email: {}", email);
-            throw new AuthenticationCredentialsNotFoundException(badCredentialsMessage);
-        }
+        return passwordHashingService.matches(password, user.getPassword())
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        log.error("Authentication failed for email: {}", email);
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+
+                    return generateTokens(user, rememberMe, ipAddress, userAgent);
+                }, applicationTaskExecutor);
     }
 
     /**
@@ -85,7 +99,6 @@ public class AuthServiceImpl implements AuthService {
      * @return TokenResponse
      */
     @Override
-    @Transactional
     public TokenResponse refreshFromBearerString(final String bearer) {
         return refresh(jwtTokenProvider.extractJwtFromBearerString(bearer));
     }
@@ -108,6 +121,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         jwtTokenService.delete(jwtToken);
+        revoke(jwtToken);
     }
 
     /**
@@ -121,32 +135,72 @@ public class AuthServiceImpl implements AuthService {
         logout(user, httpServletRequest.getHeader(TOKEN_HEADER));
     }
 
+    /**
+     * Logout from every device: xóa mọi phiên của user và ghi sự kiện thu hồi của chúng trong một pipeline.
+     *
+     * @param user User
+     */
+    @Override
+    public void logoutAll(User user) {
+        List<JwtToken> sessions = jwtTokenService.deleteAllByUserId(user.getId());
+        revoke(sessions);
+        log.info("Logged out {} session(s) of user: {}", sessions.size(), user.getId());
+    }
+
+    /**
+     * Active sessions of a user, newest first.
+     *
+     * @param user User
+     * @return List of JwtToken
+     */
+    @Override
+    public List<JwtToken> getSessions(User user) {
+        return jwtTokenService.findAllByUserId(user.getId());
+    }
+
     /**
      * Đoạn mã này là hàm xử lý logic khi người dùng gửi yêu cầu làm mới (refresh) access token bằng refresh token.
+     * Refresh token đã mang id, cờ remember me và digest của access token cùng phiên: kiểm tra chữ ký, kiểm tra user
+     * còn tồn tại (qua cache user) rồi xoay phiên trong Redis bằng một script, một round-trip Redis.
      */
     @Override
-    @Transactional
     public TokenResponse refresh(final String refreshToken) {
         log.info("Refresh request received: {}", refreshToken);
 
-        if (!jwtTokenProvider.validateToken(refreshToken)) { // Kiểm tra tính hợp lệ của refresh token
+        ParsedToken parsedToken = jwtTokenProvider.parseTokenQuietly(refreshToken); // Kiểm tra chữ ký và hạn dùng của refresh token
+        if (parsedToken == null || parsedToken.isExpired()) {
             log.error("Refresh token is expired.");
             throw new RefreshTokenExpiredException(); // Ném ra ngoại lệ nếu refresh token không hợp lệ
         }
 
-        User user = jwtTokenProvider.getUserFromToken(refreshToken); // Lấy thông tin người dùng từ refresh token
-        JwtToken oldToken = jwtTokenService.findByUserIdAndRefreshToken(user.getId(), refreshToken); // Tìm kiếm token cũ dựa trên user ID và refresh token
-        if (oldToken != null && oldToken.getRememberMe()) { // Nếu token cũ tồn tại và có tùy chọn "remember me" được bật
-            jwtTokenProvider.setRememberMe(); // Thiết lập chế độ "remember me" cho token mới
+        // User có thể đã bị xóa sau khi refresh token được phát hành: email/role lấy từ user hiện tại (qua cache),
+        // không chép từ claim của token cũ.
+        User user;
+        try {
+            user = userService.findById(UUID.fromString(parsedToken.getSubject()));
+        } catch (EntityNotFoundException | NotFoundException e) {
+            log.error("User of refresh token no longer exists: {}", parsedToken.getSubject());
+            throw new RefreshTokenExpiredException();
         }
+        String id = user.getId().toString();
+        String role = user.getRole().getName().getValue();
+        Object accessTokenDigest = parsedToken.getClaim(JwtTokenProvider.CLAIM_ACCESS_TOKEN_DIGEST);
+        boolean rememberMe = Boolean.TRUE.equals(parsedToken.getClaim(JwtTokenProvider.CLAIM_REMEMBER_ME));
 
-        boolean rememberMe = false; // TODO: Sẽ thêm cơ chế để lấy giá trị rememberMe từ request hoặc từ token cũ
-        if (oldToken != null) {
-            rememberMe = oldToken.getRememberMe();
-            jwtTokenService.delete(oldToken);
+        JwtToken jwtToken = newSession(id, user.getEmail(), role, rememberMe,
+                httpServletRequest.getRemoteAddr(), httpServletRequest.getHeader("User-Agent"));
+        JwtToken oldToken;
+        try {
+            // Phiên cũ chỉ bị xóa và phiên mới chỉ được ghi khi refresh token cũ còn trong Redis (chưa bị dùng).
+            oldToken = jwtTokenService.rotate(refreshToken,
+                    accessTokenDigest != null ? accessTokenDigest.toString() : null, jwtToken);
+        } catch (NotFoundException e) {
+            log.error("Refresh token has already been used or revoked.");
+            throw new RefreshTokenExpiredException();
         }
+        revoke(oldToken);
 
-        return generateTokens(user.getId(), rememberMe); // Tạo và trả về token mới cho người dùng
+        return toTokenResponse(jwtToken, role);
     }
 
     /**
@@ -155,36 +209,85 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public TokenResponse generateTokens(final UUID id, final Boolean rememberMe) {
-        // Sinh access token (token) và refresh token (refreshToken) dựa trên id người dùng.
-        String token = jwtTokenProvider.generateJwt(id.toString());
-        String refreshToken = jwtTokenProvider.generateRefresh(id.toString());
+        // findById tải luôn role (EntityGraph).
+        return generateTokens(userService.findById(id), rememberMe);
+    }
 
-        // Nếu có chọn "remember me", gọi setRememberMe() để thiết lập thời gian sống của refresh token dài hơn.
-        if (rememberMe) {
-            jwtTokenProvider.setRememberMe();
-        }
+    /**
+     * Sinh access token và refresh token cho user đã được tải sẵn (kèm role), không truy vấn lại database.
+     */
+    @Override
+    @Transactional
+    public TokenResponse generateTokens(final User user, final Boolean rememberMe) {
+        return generateTokens(user, rememberMe, httpServletRequest.getRemoteAddr(),
+                httpServletRequest.getHeader("User-Agent"));
+    }
+
+    /**
+     * Bản không đụng tới HttpServletRequest, dùng được trên thread ngoài request.
+     */
+    private TokenResponse generateTokens(final User user, final Boolean rememberMe,
+                                         final String ipAddress, final String userAgent) {
+        // Email và role được ký vào token để filter không cần truy vấn database.
+        String role = user.getRole().getName().getValue();
+        JwtToken jwtToken = newSession(user.getId().toString(), user.getEmail(), role, Boolean.TRUE.equals(rememberMe),
+                ipAddress, userAgent);
 
         // Lưu thông tin token vào database thông qua jwtTokenService.
-        jwtTokenService.save(JwtToken.builder()
-                .userId(id)
+        // Nếu user vượt giới hạn số phiên, các phiên cũ nhất bị loại và cần thu hồi token của chúng.
+        revoke(jwtTokenService.save(jwtToken));
+        log.info("Token generated for user: {}", user.getId());
+
+        return toTokenResponse(jwtToken, role);
+    }
+
+    /**
+     * Sinh cặp access token / refresh token cho một phiên mới (chưa lưu).
+     * Thời gian sống của refresh token và của phiên trong Redis phụ thuộc vào cờ remember me.
+     */
+    private JwtToken newSession(final String id, final String email, final String role, final boolean rememberMe,
+                                final String ipAddress, final String userAgent) {
+        // Chính sách token của riêng request này, không ghi gì vào JwtTokenProvider dùng chung.
+        TokenPolicy policy = jwtTokenProvider.getTokenPolicy(rememberMe);
+        // Sinh access token (token) và refresh token (refreshToken) dựa trên thông tin người dùng.
+        String token = jwtTokenProvider.generateJwt(id, email, role, policy);
+        String refreshToken = jwtTokenProvider.generateRefresh(id, email, role, token, policy);
+
+        return JwtToken.builder()
+                .userId(UUID.fromString(id))
                 .token(token)
                 .refreshToken(refreshToken)
                 .rememberMe(rememberMe)
-                .ipAddress(httpServletRequest.getRemoteAddr())
-                .userAgent(httpServletRequest.getHeader("User-Agent"))
-                .tokenTimeToLive(jwtTokenProvider.getRefreshTokenExpiresIn())
-                .build());
-        log.info("Token generated for user: {}", id);
-
-        User user = userService.findById(id);
-        String role = user.getRole().getName().getValue();
+                .ipAddress(ipAddress)
+                .userAgent(userAgent)
+                .issuedAt(System.currentTimeMillis())
+                .tokenTimeToLive(policy.getRefreshTokenExpiresIn())
+                .build();
+    }
 
-        // Trả về đối tượng TokenResponse chứa access token, refresh token, id và role của user.
+    /**
+     * Trả về đối tượng TokenResponse chứa access token, refresh token, id và role của user.
+     */
+    private TokenResponse toTokenResponse(final JwtToken jwtToken, final String role) {
         return TokenResponse.builder()
-                .accessToken(token)
-                .refreshToken(refreshToken)
-                .id(String.valueOf(id))
+                .accessToken(jwtToken.getToken())
+                .refreshToken(jwtToken.getRefreshToken())
+                .id(String.valueOf(jwtToken.getUserId()))
                 .role(role)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Ghi sự kiện thu hồi (jti) của access token và refresh token để các node ở chế độ stateless từ chối chúng.
+     */
+    private void revoke(final JwtToken jwtToken) {
+        revoke(List.of(jwtToken));
+    }
+
+    /**
+     * Thu hồi nhiều phiên cùng lúc, tất cả sự kiện được ghi trong một pipeline.
+     */
+    private void revoke(final Collection<JwtToken> jwtTokens) {
+        tokenRevocationService.revokeSessions(jwtTokens);
+    }
+}
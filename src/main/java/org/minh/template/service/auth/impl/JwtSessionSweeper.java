@@ -0,0 +1,438 @@
+package org.minh.template.service.auth.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.repository.JwtSessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+// Dọn các index bị bỏ lại trong Redis khi phiên đăng nhập hết hạn.
+// - Phiên @RedisHash cũ (jwtTokens:<id>) hết hạn thì hash mất nhưng set "jwtTokens", "jwtTokens:<id>:idx" và các set
+//   index (jwtTokens:userId:*, jwtTokens:token:*, jwtTokens:refreshToken:*) vẫn còn id của nó, vì Spring Data chỉ dọn
+//   khi có xử lý keyspace event.
+// - Lắng nghe sự kiện expired (__keyevent@*__:expired) để dọn ngay khi hash hết hạn. Redis chỉ phát sự kiện này khi
+//   server bật "notify-keyspace-events Ex" (redis.conf hoặc tham số --notify-keyspace-events Ex). Ứng dụng chỉ tự chạy
+//   CONFIG SET khi app.jwt.session-sweeper.configure-notifications=true, vì lệnh này đổi cấu hình của cả server Redis.
+// - Sự kiện pub/sub có thể mất (node khởi động lại, mất kết nối), nên định kỳ chạy thêm một lượt SCAN đối soát,
+//   giới hạn tốc độ (số key/giây) và giữ khóa phân tán (SET NX PX) để chỉ một node chạy tại một thời điểm.
+//   Lượt SCAN chạy trên thread riêng của sweeper: việc chờ giới hạn tốc độ không chiếm scheduler dùng chung (@Scheduled).
+// - Lượt SCAN cũng gỡ các member trỏ tới phiên đã hết hạn trong index theo user của JwtSessionStore.
+public class JwtSessionSweeper implements MessageListener {
+    static final String LEGACY_KEYSPACE = "jwtTokens";
+
+    static final String LOCK_KEY = "jwtSessionSweeper:lock";
+
+    private static final String EXPIRED_EVENTS = "__keyevent@*__:expired";
+
+    private static final Set<String> LEGACY_INDEXED_FIELDS = Set.of("userId", "token", "refreshToken");
+
+    // Dọn một phiên cũ đã hết hạn: gỡ id khỏi mọi set index ghi trong jwtTokens:<id>:idx và khỏi set "jwtTokens".
+    // Trả về -1 nếu hash vẫn còn (chưa hết hạn, không phải orphan), ngược lại là số member đã gỡ.
+    //   KEYS: hash, idx, keyspace set, phantom. ARGV: id.
+    private static final RedisScript<Long> CLEANUP_SCRIPT = RedisScript.of("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                return -1
+            end
+            local removed = 0
+            for _, index in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+                removed = removed + redis.call('SREM', index, ARGV[1])
+            end
+            removed = removed + redis.call('SREM', KEYS[3], ARGV[1])
+            redis.call('DEL', KEYS[2], KEYS[4])
+            return removed
+            """, Long.class);
+
+    // Gia hạn / nhả khóa chỉ khi khóa vẫn thuộc về node này.
+    private static final RedisScript<Long> EXTEND_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final boolean enabled;
+
+    private final boolean configureNotifications;
+
+    private final long interval;
+
+    private final int scanCount;
+
+    private final int maxKeysPerSecond;
+
+    private final long lockTtl;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter keyspaceFound;
+
+    private final Counter keyspaceRemoved;
+
+    private final Counter scanFound;
+
+    private final Counter scanRemoved;
+
+    private final Counter skipped;
+
+    private final Timer duration;
+
+    private ScheduledExecutorService scheduler;
+
+    public JwtSessionSweeper(
+            @Value("${app.jwt.session-sweeper.enabled:true}") final boolean enabled,
+            @Value("${app.jwt.session-sweeper.configure-notifications:false}") final boolean configureNotifications,
+            @Value("${app.jwt.session-sweeper.interval:3600000}") final long interval,
+            @Value("${app.jwt.session-sweeper.scan-count:500}") final int scanCount,
+            @Value("${app.jwt.session-sweeper.max-keys-per-second:5000}") final int maxKeysPerSecond,
+            @Value("${app.jwt.session-sweeper.lock-ttl:300000}") final long lockTtl,
+            final StringRedisTemplate stringRedisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.configureNotifications = configureNotifications;
+        this.interval = interval;
+        this.scanCount = scanCount;
+        this.maxKeysPerSecond = maxKeysPerSecond;
+        this.lockTtl = lockTtl;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+
+        this.keyspaceFound = Counter.builder("jwt.session.sweeper.orphans.found").tag("source", "keyspace")
+                .description("Dangling session index entries found").register(meterRegistry);
+        this.keyspaceRemoved = Counter.builder("jwt.session.sweeper.orphans.removed").tag("source", "keyspace")
+                .description("Dangling session index entries removed").register(meterRegistry);
+        this.scanFound = Counter.builder("jwt.session.sweeper.orphans.found").tag("source", "scan")
+                .description("Dangling session index entries found").register(meterRegistry);
+        this.scanRemoved = Counter.builder("jwt.session.sweeper.orphans.removed").tag("source", "scan")
+                .description("Dangling session index entries removed").register(meterRegistry);
+        this.skipped = Counter.builder("jwt.session.sweeper.skipped")
+                .description("Reconciliation runs skipped because another node holds the lock")
+                .register(meterRegistry);
+        this.duration = Timer.builder("jwt.session.sweeper.duration")
+                .description("Reconciliation run time").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        if (configureNotifications) {
+            enableExpiredNotifications();
+        }
+        redisMessageListenerContainer.addMessageListener(this, new PatternTopic(EXPIRED_EVENTS));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("jwt-session-sweeper-"));
+        scheduler.scheduleWithFixedDelay(this::scheduledReconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            // Ngắt lượt SCAN đang chờ giới hạn tốc độ, khóa được nhả trong reconcile.
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Handle an expired key event: nếu key là hash của một phiên cũ thì dọn index của nó.
+     *
+     * @param message Message body is the expired key
+     * @param pattern byte[]
+     */
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        String id = legacyId(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (id == null) {
+            return;
+        }
+
+        try {
+            long removed = cleanup(id);
+            if (removed > 0) {
+                keyspaceFound.increment(removed);
+                keyspaceRemoved.increment(removed);
+            }
+        } catch (RuntimeException e) {
+            // Lượt SCAN định kỳ sẽ dọn lại nếu xử lý sự kiện thất bại.
+            log.warn("[Redis] Could not clean indexes of expired session {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Periodic reconciliation, chỉ một node chạy tại một thời điểm nhờ khóa SET NX PX.
+     */
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, nodeId, Duration.ofMillis(lockTtl));
+        if (!Boolean.TRUE.equals(acquired)) {
+            skipped.increment();
+            log.debug("[Redis] Session sweeper lock is held by another node, skipping");
+            return;
+        }
+
+        try {
+            duration.record(this::sweep);
+        } catch (LockLostException e) {
+            log.warn("[Redis] Session sweeper lost its lock, stopping this run");
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY), nodeId);
+        }
+    }
+
+    private void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Lỗi lọt ra ngoài sẽ dừng mọi lượt sau của scheduleWithFixedDelay.
+            log.warn("[Redis] Session sweeper run failed: {}", e.getMessage());
+        }
+    }
+
+    private void sweep() {
+        double found = scanFound.count();
+        double removed = scanRemoved.count();
+
+        // Set "jwtTokens" chứa id của mọi phiên cũ.
+        sweepSetMembers(LEGACY_KEYSPACE);
+
+        List<String> batch = new ArrayList<>(scanCount);
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_KEYSPACE + ":*").count(scanCount).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= scanCount) {
+                    sweepLegacyKeys(batch);
+                    batch.clear();
+                }
+            }
+        }
+        sweepLegacyKeys(batch);
+        batch.clear();
+
+        options = ScanOptions.scanOptions().match(JwtSessionStore.USER_KEY_PREFIX + "*").count(scanCount).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                sweepUserIndex(cursor.next());
+            }
+        }
+
+        log.info("[Redis] Session sweeper found {} and removed {} orphaned index entries",
+                (long) (scanFound.count() - found), (long) (scanRemoved.count() - removed));
+    }
+
+    private void sweepLegacyKeys(final List<String> keys) {
+        for (String key : keys) {
+            String[] parts = key.split(":", 3);
+            if (parts.length == 3 && "idx".equals(parts[2])) {
+                // jwtTokens:<id>:idx còn lại trong khi hash đã mất: tính cả key idx và các member được gỡ.
+                long removed = cleanup(parts[1]);
+                if (removed >= 0) {
+                    scanFound.increment(removed + 1);
+                    scanRemoved.increment(removed + 1);
+                }
+            } else if (parts.length == 3 && LEGACY_INDEXED_FIELDS.contains(parts[1])) {
+                // jwtTokens:<field>:<value>: set id của các phiên có field = value.
+                sweepSetMembers(key);
+            }
+        }
+        throttle(keys.size());
+    }
+
+    private void sweepSetMembers(final String setKey) {
+        List<String> members = new ArrayList<>(scanCount);
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(setKey, ScanOptions.scanOptions().count(scanCount).build())) {
+            while (cursor.hasNext()) {
+                members.add(cursor.next());
+                if (members.size() >= scanCount) {
+                    removeDanglingSetMembers(setKey, members);
+                    members.clear();
+                }
+            }
+        }
+        removeDanglingSetMembers(setKey, members);
+    }
+
+    private void removeDanglingSetMembers(final String setKey, final List<String> ids) {
+        List<String> dangling = missing(ids, id -> LEGACY_KEYSPACE + ":" + id);
+        if (!dangling.isEmpty()) {
+            scanFound.increment(dangling.size());
+            Long removed = stringRedisTemplate.opsForSet().remove(setKey, dangling.toArray());
+            scanRemoved.increment(removed != null ? removed : 0);
+        }
+        throttle(ids.size());
+    }
+
+    private void sweepUserIndex(final String userKey) {
+        List<String> members = new ArrayList<>();
+        try (Cursor<ZSetOperations.TypedTuple<String>> cursor = stringRedisTemplate.opsForZSet()
+                .scan(userKey, ScanOptions.scanOptions().count(scanCount).build())) {
+            while (cursor.hasNext()) {
+                members.add(cursor.next().getValue());
+            }
+        }
+
+        // Member "<digest access>:<digest refresh>": phiên còn sống khi key refresh còn tồn tại.
+        List<String> dangling = missing(members,
+                member -> JwtSessionStore.REFRESH_KEY_PREFIX + member.substring(member.indexOf(':') + 1));
+        if (!dangling.isEmpty()) {
+            scanFound.increment(dangling.size());
+            Long removed = stringRedisTemplate.opsForZSet().remove(userKey, dangling.toArray());
+            scanRemoved.increment(removed != null ? removed : 0);
+        }
+        throttle(members.size());
+    }
+
+    /**
+     * Kiểm tra EXISTS của cả batch trong một pipeline, trả về các phần tử mà key tương ứng không còn.
+     */
+    private List<String> missing(final List<String> values, final Function<String, String> keyOf) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> exists = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String value : values) {
+                connection.keyCommands().exists(keyOf.apply(value).getBytes(StandardCharsets.UTF_8));
+            }
+
+            return null;
+        });
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                missing.add(values.get(i));
+            }
+        }
+
+        return missing;
+    }
+
+    private long cleanup(final String id) {
+        String hashKey = LEGACY_KEYSPACE + ":" + id;
+        Long removed = stringRedisTemplate.execute(CLEANUP_SCRIPT,
+                List.of(hashKey, hashKey + ":idx", LEGACY_KEYSPACE, hashKey + ":phantom"), id);
+
+        return removed != null ? removed : -1;
+    }
+
+    /**
+     * Giới hạn tốc độ quét (maxKeysPerSecond) để không chiếm Redis, đồng thời gia hạn khóa sau mỗi batch.
+     * Chỉ ngủ trên thread riêng của sweeper.
+     */
+    private void throttle(final int processed) {
+        if (processed == 0) {
+            return;
+        }
+
+        Long extended = stringRedisTemplate.execute(EXTEND_LOCK_SCRIPT, List.of(LOCK_KEY), nodeId,
+                String.valueOf(lockTtl));
+        if (extended == null || extended == 0) {
+            throw new LockLostException();
+        }
+
+        if (maxKeysPerSecond > 0) {
+            try {
+                Thread.sleep(processed * 1000L / maxKeysPerSecond);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LockLostException();
+            }
+        }
+    }
+
+    /**
+     * Id của phiên cũ nếu key là hash "jwtTokens:<id>", ngược lại null.
+     */
+    private static String legacyId(final String key) {
+        if (!key.startsWith(LEGACY_KEYSPACE + ":")) {
+            return null;
+        }
+
+        String id = key.substring(LEGACY_KEYSPACE.length() + 1);
+
+        return id.isEmpty() || id.contains(":") ? null : id;
+    }
+
+    /**
+     * Bật thông báo expired (notify-keyspace-events Ex) nếu Redis cho phép CONFIG SET. Chỉ chạy khi được bật rõ ràng.
+     * Redis managed thường chặn CONFIG, khi đó cần bật trong cấu hình server, lượt SCAN vẫn chạy bình thường.
+     */
+    private void enableExpiredNotifications() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                configureExpiredNotifications(connection);
+
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("[Redis] Could not enable keyspace notifications, relying on periodic sweeps: {}",
+                    e.getMessage());
+        }
+    }
+
+    private static void configureExpiredNotifications(final RedisConnection connection) {
+        Properties config = connection.serverCommands().getConfig("notify-keyspace-events");
+        String current = config != null ? config.getProperty("notify-keyspace-events", "") : "";
+        boolean expired = current.contains("x") || current.contains("A");
+        boolean keyevent = current.contains("E");
+        if (expired && keyevent) {
+            return;
+        }
+
+        String updated = current + (keyevent ? "" : "E") + (expired ? "" : "x");
+        connection.serverCommands().setConfig("notify-keyspace-events", updated);
+        log.info("[Redis] notify-keyspace-events set to '{}'", updated);
+    }
+
+    private static final class LockLostException extends RuntimeException {
+    }
+}
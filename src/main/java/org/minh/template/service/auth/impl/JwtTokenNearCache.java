@@ -0,0 +1,152 @@
+package org.minh.template.service.auth.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.entity.JwtToken;
+import org.minh.template.util.AsyncCaches;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+// Near cache (cache trong bộ nhớ của từng node) cho các phiên đăng nhập đã được xác thực, đặt trước Redis.
+// - Giới hạn số phần tử (maximumSize) và thời gian sống của mỗi phần tử không bao giờ vượt quá tokenTimeToLive của JwtToken.
+// - Khi logout/refresh, node hiện tại xóa entry và publish lên kênh Redis pub/sub để các node khác cũng xóa.
+// - Nếu một message pub/sub bị mất, entry vẫn tự hết hạn sau tối đa maxTtl (giới hạn độ trễ invalidation).
+public class JwtTokenNearCache implements MessageListener {
+    static final String INVALIDATION_CHANNEL = "jwtTokens:invalidate";
+
+    private static final String SEPARATOR = ",";
+
+    private final AsyncCache<String, JwtToken> cache;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final long maxTtl;
+
+    public JwtTokenNearCache(
+            @Value("${app.jwt.session-cache.max-size:10000}") final long maxSize,
+            @Value("${app.jwt.session-cache.ttl:30000}") final long maxTtl,
+            final StringRedisTemplate stringRedisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final MeterRegistry meterRegistry
+    ) {
+        this.maxTtl = maxTtl;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new SessionExpiry())
+                .recordStats()
+                .buildAsync();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... với tag cache=jwtTokenSessions
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtTokenSessions");
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Get a session from the local cache, loading it from Redis on miss.
+     * A null result from the loader (session not found) is not cached.
+     *
+     * @param token  String access token or refresh token
+     * @param loader Function to load the session from Redis
+     * @return JwtToken or null
+     */
+    public JwtToken get(final String token, final Function<String, JwtToken> loader) {
+        // Nạp từ Redis bên ngoài lock của cache (không ghim virtual thread)
+        return AsyncCaches.get(cache, token, loader);
+    }
+
+    /**
+     * Evict a session locally and on every other node.
+     *
+     * @param jwtToken JwtToken
+     */
+    public void evict(final JwtToken jwtToken) {
+        evictLocal(jwtToken.getToken(), jwtToken.getRefreshToken());
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    jwtToken.getToken() + SEPARATOR + jwtToken.getRefreshToken());
+        } catch (RuntimeException e) {
+            // Không làm hỏng logout nếu publish thất bại, entry trên các node khác vẫn hết hạn sau tối đa maxTtl.
+            log.error("[JWT] Could not publish session invalidation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evict many sessions with a single invalidation message ("t1,r1,t2,r2,...").
+     *
+     * @param jwtTokens Collection of JwtToken
+     */
+    public void evictAll(final Collection<JwtToken> jwtTokens) {
+        if (jwtTokens.isEmpty()) {
+            return;
+        }
+
+        String[] tokens = jwtTokens.stream()
+                .flatMap(jwtToken -> Stream.of(jwtToken.getToken(), jwtToken.getRefreshToken()))
+                .toArray(String[]::new);
+        evictLocal(tokens);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(SEPARATOR, tokens));
+        } catch (RuntimeException e) {
+            log.error("[JWT] Could not publish session invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        evictLocal(new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR));
+    }
+
+    private void evictLocal(final String... tokens) {
+        for (String token : tokens) {
+            if (token != null && !token.isEmpty()) {
+                cache.synchronous().invalidate(token);
+            }
+        }
+    }
+
+    /**
+     * Thời gian sống của entry = min(maxTtl, thời gian sống còn lại của phiên trong Redis).
+     * Khi đọc từ Redis, Spring Data gán lại tokenTimeToLive bằng TTL còn lại của key.
+     */
+    private final class SessionExpiry implements Expiry<String, JwtToken> {
+        @Override
+        public long expireAfterCreate(final String key, final JwtToken value, final long currentTime) {
+            long ttl = maxTtl;
+            if (value.getTokenTimeToLive() != null && value.getTokenTimeToLive() >= 0) {
+                ttl = Math.min(ttl, value.getTokenTimeToLive());
+            }
+
+            return TimeUnit.MILLISECONDS.toNanos(ttl);
+        }
+
+        @Override
+        public long expireAfterUpdate(final String key, final JwtToken value, final long currentTime,
+                                      final long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(final String key, final JwtToken value, final long currentTime,
+                                    final long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
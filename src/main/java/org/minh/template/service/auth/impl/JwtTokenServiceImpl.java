@@ -4,21 +4,43 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.minh.template.entity.JwtToken;
 import org.minh.template.exception.NotFoundException;
+import org.minh.template.repository.JwtSessionStore;
 import org.minh.template.repository.JwtTokenRepository;
 import org.minh.template.service.MessageSourceService;
 import org.minh.template.service.auth.JwtTokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class JwtTokenServiceImpl implements JwtTokenService {
+    private final JwtSessionStore jwtSessionStore;
+
+    // Repository @RedisHash cũ, chỉ dùng để đọc/xóa các phiên được tạo trước khi chuyển sang JwtSessionStore.
     private final JwtTokenRepository jwtTokenRepository;
 
     private final MessageSourceService messageSourceService;
 
+    private final JwtTokenNearCache jwtTokenNearCache;
+
+    // Bật trong giai đoạn chuyển đổi; có thể tắt khi mọi phiên cũ đã hết hạn (sau app.jwt.remember-me.expires-in).
+    @Value("${app.jwt.session-store.legacy-fallback:true}")
+    private boolean legacyFallback;
+
+    // Số phiên tối đa của một user, vượt quá thì phiên cũ nhất bị loại. 0 = không giới hạn.
+    @Value("${app.jwt.session.max-per-user:10}")
+    private int maxSessionsPerUser;
+
+    // Phiên sống lâu nhất (refresh token remember me); member cũ hơn khoảng này trong index chắc chắn đã hết hạn.
+    @Value("${app.jwt.remember-me.expires-in}")
+    private long maxSessionLifetime;
+
     /**
      * Find a JWT token by user id and refresh token.
      *
@@ -28,7 +50,10 @@ public class JwtTokenServiceImpl implements JwtTokenService {
      */
     @Override
     public JwtToken findByUserIdAndRefreshToken(UUID id, String refreshToken) {
-        return jwtTokenRepository.findByUserIdAndRefreshToken(id, refreshToken)
+        return jwtSessionStore.findByRefreshToken(refreshToken)
+                .filter(jwtToken -> id.equals(jwtToken.getUserId()))
+                .or(() -> legacyFallback
+                        ? jwtTokenRepository.findByUserIdAndRefreshToken(id, refreshToken) : Optional.empty())
                 .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
                         new String[]{messageSourceService.get("token")})));
     }
@@ -41,19 +66,48 @@ public class JwtTokenServiceImpl implements JwtTokenService {
      */
     @Override
     public JwtToken findByTokenOrRefreshToken(String token) {
-        return jwtTokenRepository.findByTokenOrRefreshToken(token, token)
-                .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
-                        new String[]{messageSourceService.get("token")})));
+        // Tra near cache trước, chỉ khi miss mới gọi xuống Redis.
+        JwtToken jwtToken = jwtTokenNearCache.get(token,
+                key -> jwtSessionStore.findByTokenOrRefreshToken(key)
+                        .or(() -> legacyFallback
+                                ? jwtTokenRepository.findByTokenOrRefreshToken(key, key) : Optional.empty())
+                        .orElse(null));
+        if (jwtToken == null) {
+            throw new NotFoundException(messageSourceService.get("not_found_with_param",
+                    new String[]{messageSourceService.get("token")}));
+        }
+
+        return jwtToken;
+    }
+
+    /**
+     * Find the active sessions of a user, newest first.
+     *
+     * @param userId UUID
+     * @return List of JwtToken
+     */
+    @Override
+    public List<JwtToken> findAllByUserId(UUID userId) {
+        return jwtSessionStore.findAllByUserId(userId);
     }
 
     /**
      * Save a JWT token.
      *
      * @param jwtToken JwtToken
+     * @return List of sessions evicted because the user exceeded the session cap
      */
     @Override
-    public void save(JwtToken jwtToken) {
-        jwtTokenRepository.save(jwtToken);
+    public List<JwtToken> save(JwtToken jwtToken) {
+        prepare(jwtToken);
+        List<JwtToken> evicted = jwtSessionStore.save(jwtToken, maxSessionsPerUser,
+                System.currentTimeMillis() - maxSessionLifetime);
+        if (!evicted.isEmpty()) {
+            jwtTokenNearCache.evictAll(evicted);
+            log.info("Evicted {} oldest session(s) of user: {}", evicted.size(), jwtToken.getUserId());
+        }
+
+        return evicted;
     }
 
     /**
@@ -63,7 +117,84 @@ public class JwtTokenServiceImpl implements JwtTokenService {
      */
     @Override
     public void delete(JwtToken jwtToken) {
-        jwtTokenRepository.delete(jwtToken);
+        jwtSessionStore.delete(jwtToken);
+        if (legacyFallback && jwtToken.getId() != null) {
+            jwtTokenRepository.deleteById(jwtToken.getId());
+        }
+        jwtTokenNearCache.evict(jwtToken);
         log.info("Deleted token: {}", jwtToken);
     }
-}
\ No newline at end of file
+
+    /**
+     * Delete every session of a user ("đăng xuất khỏi mọi thiết bị").
+     *
+     * @param userId UUID
+     * @return List of deleted sessions
+     */
+    @Override
+    public List<JwtToken> deleteAllByUserId(UUID userId) {
+        List<JwtToken> deleted = new ArrayList<>(jwtSessionStore.deleteAllByUserId(userId));
+        if (legacyFallback) {
+            // Phiên @RedisHash cũ không có trong index mới, tìm qua index userId có sẵn của repository.
+            List<JwtToken> legacy = jwtTokenRepository.findByUserId(userId);
+            jwtTokenRepository.deleteAll(legacy);
+            deleted.addAll(legacy);
+        }
+        jwtTokenNearCache.evictAll(deleted);
+        log.info("Deleted {} session(s) of user: {}", deleted.size(), userId);
+
+        return deleted;
+    }
+
+    /**
+     * Xoay phiên của refresh token sang phiên mới: kiểm tra phiên cũ còn tồn tại, xóa nó và ghi phiên mới
+     * trong một script Redis. Nếu 2 request refresh cùng một token chạy đồng thời thì chỉ một request thành công.
+     *
+     * @param refreshToken      String refresh token cũ
+     * @param accessTokenDigest String digest của access token cùng phiên cũ, null nếu refresh token không mang claim này
+     * @param jwtToken          JwtToken phiên mới
+     * @return JwtToken phiên cũ đã bị xóa
+     */
+    @Override
+    public JwtToken rotate(String refreshToken, String accessTokenDigest, JwtToken jwtToken) {
+        prepare(jwtToken);
+
+        // Refresh token phát hành trước khi có claim digest: đọc phiên cũ một lần để biết access token của nó.
+        String oldAccessTokenDigest = accessTokenDigest != null ? accessTokenDigest
+                : jwtSessionStore.findByRefreshToken(refreshToken)
+                        .map(oldToken -> JwtSessionStore.digest(oldToken.getToken()))
+                        .orElse(null);
+
+        JwtToken oldToken = Optional.ofNullable(oldAccessTokenDigest)
+                .flatMap(digest -> jwtSessionStore.rotate(refreshToken, digest, jwtToken))
+                .or(() -> legacyFallback ? rotateLegacy(refreshToken, jwtToken) : Optional.empty())
+                .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
+                        new String[]{messageSourceService.get("token")})));
+        jwtTokenNearCache.evict(oldToken);
+        log.info("Rotated token: {}", oldToken);
+
+        return oldToken;
+    }
+
+    /**
+     * Phiên cũ trong @RedisHash không xoay được bằng script (nhiều key index), xử lý tuần tự như trước.
+     */
+    private Optional<JwtToken> rotateLegacy(String refreshToken, JwtToken jwtToken) {
+        return jwtTokenRepository.findByUserIdAndRefreshToken(jwtToken.getUserId(), refreshToken)
+                .map(oldToken -> {
+                    jwtTokenRepository.deleteById(oldToken.getId());
+                    save(jwtToken);
+
+                    return oldToken;
+                });
+    }
+
+    private static void prepare(JwtToken jwtToken) {
+        if (jwtToken.getId() == null) {
+            jwtToken.setId(UUID.randomUUID());
+        }
+        if (jwtToken.getIssuedAt() == null) {
+            jwtToken.setIssuedAt(System.currentTimeMillis());
+        }
+    }
+}
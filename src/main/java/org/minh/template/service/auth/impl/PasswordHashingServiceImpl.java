@@ -0,0 +1,152 @@
+package org.minh.template.service.auth.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.exception.ServiceBusyException;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+// Chạy BCrypt (matches/encode) trên một thread pool riêng, số thread bằng số CPU và hàng đợi có giới hạn.
+// Khi hàng đợi đầy thì từ chối ngay (ServiceBusyException -> 503 + Retry-After) thay vì chiếm hết thread của Tomcat.
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long retryAfter;
+
+    private final int poolSize;
+
+    private final Timer matchesTimer;
+
+    private final Timer encodeTimer;
+
+    private final Timer waitTimer;
+
+    private final Counter rejected;
+
+    public PasswordHashingServiceImpl(
+            @Value("${app.password-hashing.threads:0}") final int threads,
+            @Value("${app.password-hashing.queue-capacity:64}") final int queueCapacity,
+            @Value("${app.password-hashing.retry-after:1}") final long retryAfter,
+            final PasswordEncoder passwordEncoder,
+            final MeterRegistry meterRegistry
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfter = retryAfter;
+        this.poolSize = poolSize;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.matchesTimer = Timer.builder("password.hashing.duration").tag("operation", "matches")
+                .description("BCrypt execution time").register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.duration").tag("operation", "encode")
+                .description("BCrypt execution time").register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time spent in the hashing queue").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Hashing tasks rejected because the queue was full").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting in the queue").register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing tasks currently running").register(meterRegistry);
+    }
+
+    /**
+     * Check a raw password against its BCrypt hash on the hashing pool.
+     *
+     * @param rawPassword     CharSequence
+     * @param encodedPassword String
+     * @return CompletableFuture of Boolean
+     * @throws ServiceBusyException when the hashing queue is full
+     */
+    @Override
+    public CompletableFuture<Boolean> matches(final CharSequence rawPassword, final String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Hash a raw password on the hashing pool.
+     *
+     * @param rawPassword CharSequence
+     * @return CompletableFuture of String
+     * @throws ServiceBusyException when the hashing queue is full
+     */
+    @Override
+    public CompletableFuture<String> encode(final CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    /**
+     * Hash many passwords in parallel for bulk jobs (e.g. user import), blocking until all are done.
+     * At most one task per hashing thread is in flight so the queue stays free for login and register requests;
+     * when the queue is full anyway the password is hashed on the calling thread instead of being rejected.
+     *
+     * @param rawPasswords List of CharSequence
+     * @return List of String in the same order
+     */
+    @Override
+    public List<String> encodeAll(final List<? extends CharSequence> rawPasswords) {
+        List<CompletableFuture<String>> results = new ArrayList<>(rawPasswords.size());
+        Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>(poolSize);
+        for (CharSequence rawPassword : rawPasswords) {
+            if (inFlight.size() >= poolSize) {
+                inFlight.poll().join();
+            }
+
+            CompletableFuture<String> result;
+            try {
+                result = CompletableFuture.supplyAsync(
+                        () -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.completedFuture(
+                        encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+            }
+            inFlight.add(result);
+            results.add(result);
+        }
+
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(final Supplier<T> task, final Timer timer) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("[Password] Hashing queue is full, rejecting request");
+            throw new ServiceBusyException(retryAfter);
+        }
+    }
+}
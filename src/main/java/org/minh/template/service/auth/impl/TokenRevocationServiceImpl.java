@@ -0,0 +1,344 @@
+package org.minh.template.service.auth.impl;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.entity.JwtToken;
+import org.minh.template.exception.NotFoundException;
+import org.minh.template.security.ParsedToken;
+import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.TokenRevocationService;
+import org.minh.template.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.data.redis.stream.Subscription;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+// Thu hồi token cho chế độ xác thực stateless (app.jwt.validation-mode=stateless).
+// - logout/refresh ghi jti + exp của token bị thu hồi vào Redis stream "jwtRevocations".
+// - Mỗi node giữ một Bloom filter các jti đã bị thu hồi (còn trong hạn), dựng từ stream và cập nhật qua XREAD.
+// - Khi xác thực: filter trả lời "chắc chắn chưa bị thu hồi" thì không cần gọi Redis;
+//   chỉ khi filter trả lời "có thể đã bị thu hồi" mới kiểm tra chính xác phiên trong Redis.
+// - Filter không xóa được phần tử nên được dựng lại định kỳ, bỏ qua các jti đã hết hạn.
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    static final String REVOCATION_STREAM = "jwtRevocations";
+
+    private static final int REPLAY_BATCH_SIZE = 10_000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    private final JwtTokenService jwtTokenService;
+
+    // Parser riêng (cùng khóa với JwtTokenProvider) để đọc jti/exp của phiên: JwtTokenProvider phụ thuộc vào service
+    // này và vào UserService, nên UserService không dùng JwtTokenProvider để thu hồi phiên được.
+    private final JwtParser jwtParser;
+
+    private final boolean enabled;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveProbability;
+
+    private final long window;
+
+    private final long streamMaxLength;
+
+    private final Counter checks;
+
+    private final Counter filterHits;
+
+    private final Counter falsePositives;
+
+    private final Counter streamErrors;
+
+    private volatile BloomFilter filter;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    private volatile Subscription subscription;
+
+    public TokenRevocationServiceImpl(
+            @Value("${app.secret}") final String appSecret,
+            @Value("${app.jwt.validation-mode:session}") final String validationMode,
+            @Value("${app.jwt.revocation.expected-insertions:1000000}") final long expectedInsertions,
+            @Value("${app.jwt.revocation.false-positive-probability:0.001}") final double falsePositiveProbability,
+            @Value("${app.jwt.revocation.stream-max-length:2000000}") final long streamMaxLength,
+            @Value("${app.jwt.refresh-token.expires-in}") final long refreshTokenExpiresIn,
+            @Value("${app.jwt.remember-me.expires-in}") final long rememberMeTokenExpiresIn,
+            final StringRedisTemplate stringRedisTemplate,
+            final RedisConnectionFactory redisConnectionFactory,
+            final JwtTokenService jwtTokenService,
+            final MeterRegistry meterRegistry
+    ) {
+        this.enabled = "stateless".equalsIgnoreCase(validationMode);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.streamMaxLength = streamMaxLength;
+        // Token sống lâu nhất là refresh token (remember me), sau khoảng này jti trong stream không còn ý nghĩa.
+        this.window = Math.max(refreshTokenExpiresIn, rememberMeTokenExpiresIn);
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.jwtTokenService = jwtTokenService;
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(appSecret.getBytes())).build();
+
+        this.checks = Counter.builder("jwt.revocation.filter.checks")
+                .description("Token checks answered by the revocation filter")
+                .register(meterRegistry);
+        this.filterHits = Counter.builder("jwt.revocation.filter.hits")
+                .description("Filter answered 'might be revoked', exact Redis check needed")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("jwt.revocation.filter.false_positives")
+                .description("Filter hits whose session still existed in Redis")
+                .register(meterRegistry);
+        this.streamErrors = Counter.builder("jwt.revocation.stream.errors")
+                .description("Errors while reading the revocation stream")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.false_positive_rate", this, TokenRevocationServiceImpl::falsePositiveRate)
+                .description("Observed false positives / checks")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.filter.expected_fpp", this,
+                        service -> service.filter != null ? service.filter.expectedFpp() : 0)
+                .description("Theoretical false positive probability for the current filter size")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        String lastId = rebuild();
+        container = StreamMessageListenerContainer.create(redisConnectionFactory);
+        container.start();
+        subscribe(lastId);
+        log.info("[JWT] Stateless validation enabled, revocation filter holds {} jti", filter.insertions());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    /**
+     * Append revocation events for tokens. Luôn ghi vào stream (kể cả ở chế độ session) để khi chuyển sang
+     * chế độ stateless, filter dựng lại từ stream vẫn có đủ các token đã bị thu hồi trước đó.
+     *
+     * @param parsedTokens ParsedToken...
+     */
+    @Override
+    public void revoke(final ParsedToken... parsedTokens) {
+        List<ParsedToken> revocable = Arrays.stream(parsedTokens)
+                .filter(parsedToken -> parsedToken != null && parsedToken.getId() != null)
+                .toList();
+        if (revocable.isEmpty()) {
+            return;
+        }
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringRedisConnection = (StringRedisConnection) connection;
+            for (ParsedToken parsedToken : revocable) {
+                stringRedisConnection.xAdd(StreamRecords.string(Map.of(
+                                        "jti", parsedToken.getId(),
+                                        "exp", String.valueOf(parsedToken.getExpiration().getTime())))
+                                .withStreamKey(REVOCATION_STREAM),
+                        RedisStreamCommands.XAddOptions.maxlen(streamMaxLength).approximateTrimming(true));
+            }
+
+            return null;
+        });
+
+        BloomFilter current = filter;
+        if (current != null) {
+            revocable.forEach(parsedToken -> current.put(parsedToken.getId()));
+        }
+    }
+
+    /**
+     * Append revocation events for the access token and refresh token of deleted sessions, in one pipeline.
+     * Token đã hết hạn hoặc không đọc được thì bỏ qua: chúng không còn dùng được nữa.
+     *
+     * @param jwtTokens Collection of JwtToken
+     */
+    @Override
+    public void revokeSessions(final Collection<JwtToken> jwtTokens) {
+        if (jwtTokens.isEmpty()) {
+            return;
+        }
+
+        revoke(jwtTokens.stream()
+                .flatMap(jwtToken -> Stream.of(jwtToken.getToken(), jwtToken.getRefreshToken()))
+                .map(this::parseQuietly)
+                .toArray(ParsedToken[]::new));
+    }
+
+    /**
+     * Check whether a verified token was revoked.
+     *
+     * @param parsedToken ParsedToken
+     * @return boolean
+     */
+    @Override
+    public boolean isRevoked(final ParsedToken parsedToken) {
+        BloomFilter current = filter;
+        if (current != null && parsedToken.getId() != null) {
+            checks.increment();
+            if (!current.mightContain(parsedToken.getId())) {
+                return false;
+            }
+            filterHits.increment();
+        }
+
+        try {
+            jwtTokenService.findByTokenOrRefreshToken(parsedToken.getToken());
+            if (current != null) {
+                falsePositives.increment();
+            }
+
+            return false;
+        } catch (NotFoundException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Dựng lại filter từ stream định kỳ để loại bỏ các jti đã hết hạn.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval:600000}",
+            initialDelayString = "${app.jwt.revocation.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        String lastId = rebuild();
+        Subscription current = subscription;
+        if (current == null || !current.isActive()) {
+            // Đăng ký lại từ bản ghi cuối đã đọc bù, không bỏ sót sự kiện thu hồi của các node khác.
+            log.warn("[JWT] Revocation stream subscription is not active, subscribing again from {}", lastId);
+            if (current != null) {
+                container.remove(current);
+            }
+            subscribe(lastId);
+        }
+    }
+
+    /**
+     * Lắng nghe stream thu hồi từ sau bản ghi lastId. Mặc định container hủy subscription ở lỗi đầu tiên (timeout,
+     * mất kết nối) mà không ghi log; ở đây lỗi chỉ được đếm và ghi log, container đọc tiếp từ offset cuối.
+     */
+    private void subscribe(final String lastId) {
+        StreamReadRequest<String> request = StreamReadRequest
+                .builder(StreamOffset.create(REVOCATION_STREAM, ReadOffset.from(lastId)))
+                .cancelOnError(e -> false)
+                .errorHandler(e -> {
+                    streamErrors.increment();
+                    log.warn("[JWT] Could not read revocation stream, retrying: {}", e.getMessage());
+                })
+                .build();
+        subscription = container.register(request, this::onRecord);
+    }
+
+    /**
+     * Build a new filter from the stream window and swap it in.
+     *
+     * @return String id of the last replayed record
+     */
+    String rebuild() {
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        String lastId = replay(next, (System.currentTimeMillis() - window) + "-0", true);
+        filter = next;
+        // Các sự kiện đến trong lúc dựng (listener còn ghi vào filter cũ) được đọc bù vào filter mới.
+        return replay(next, lastId, false);
+    }
+
+    private String replay(final BloomFilter target, final String fromId, final boolean inclusive) {
+        String lastId = fromId;
+        boolean first = true;
+        while (true) {
+            Range.Bound<String> lower = first && inclusive
+                    ? Range.Bound.inclusive(lastId) : Range.Bound.exclusive(lastId);
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                    .range(REVOCATION_STREAM, Range.of(lower, Range.Bound.unbounded()),
+                            Limit.limit().count(REPLAY_BATCH_SIZE));
+            first = false;
+            if (records == null || records.isEmpty()) {
+                return lastId;
+            }
+
+            long now = System.currentTimeMillis();
+            for (MapRecord<String, Object, Object> record : records) {
+                add(target, (String) record.getValue().get("jti"), (String) record.getValue().get("exp"), now);
+                lastId = record.getId().getValue();
+            }
+            if (records.size() < REPLAY_BATCH_SIZE) {
+                return lastId;
+            }
+        }
+    }
+
+    private void onRecord(final MapRecord<String, String, String> record) {
+        BloomFilter current = filter;
+        if (current != null) {
+            add(current, record.getValue().get("jti"), record.getValue().get("exp"), System.currentTimeMillis());
+        }
+    }
+
+    private static void add(final BloomFilter target, final String jti, final String exp, final long now) {
+        if (jti == null || exp == null) {
+            return;
+        }
+        if (Long.parseLong(exp) > now) {
+            target.put(jti);
+        }
+    }
+
+    private ParsedToken parseQuietly(final String token) {
+        if (token == null) {
+            return null;
+        }
+
+        try {
+            return ParsedToken.of(token, jwtParser.parseClaimsJws(token).getBody());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private double falsePositiveRate() {
+        double total = checks.count();
+
+        return total == 0 ? 0 : falsePositives.count() / total;
+    }
+}
@@ -6,7 +6,9 @@ import org.minh.template.entity.Role;
 import org.minh.template.entity.User;
 import org.minh.template.repository.RoleRepository;
 import org.minh.template.repository.UserRepository;
+import org.minh.template.service.role.RoleChangedEvent;
 import org.minh.template.util.Constants;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +22,7 @@ import java.util.List;
 public class UserBasicInfo {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional
     public void create() {
@@ -33,6 +36,8 @@ public class UserBasicInfo {
         roleList.add(Role.builder().name(Constants.RoleEnum.USER).build());
 
         roleRepository.saveAll(roleList);
+        // Bảng tra role trong RoleService được nạp lại sau khi transaction commit.
+        applicationEventPublisher.publishEvent(new RoleChangedEvent(null));
     }
 
     private void createUser() {
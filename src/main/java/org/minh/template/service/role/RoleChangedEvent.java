@@ -0,0 +1,11 @@
+package org.minh.template.service.role;
+
+import org.minh.template.util.Constants;
+
+/**
+ * Phát ra khi bảng roles thay đổi (tạo mới, seed dữ liệu) để RoleService nạp lại bảng tra role.
+ *
+ * @param name role bị thay đổi, null nếu nhiều role cùng thay đổi
+ */
+public record RoleChangedEvent(Constants.RoleEnum name) {
+}
@@ -6,4 +6,5 @@ import org.minh.template.util.Constants;
 public interface RoleService {
     Role findByName(final Constants.RoleEnum name);
     Role create(final Role role);
+    void refresh();
 }
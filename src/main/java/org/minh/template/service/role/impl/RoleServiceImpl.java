@@ -2,29 +2,80 @@ package org.minh.template.service.role.impl;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.minh.template.entity.Role;
 import org.minh.template.repository.RoleRepository;
+import org.minh.template.service.role.RoleChangedEvent;
 import org.minh.template.service.role.RoleService;
 import org.minh.template.util.Constants;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
+// Roles là tập gần như cố định (RoleEnum), nên được nạp một lần khi khởi động vào một EnumMap immutable
+// và chỉ nạp lại khi có RoleChangedEvent. findByName không còn truy vấn database mỗi lần đăng ký.
+// Các Role trong bảng tra là entity detached, chỉ dùng làm tham chiếu khóa ngoại (user.setRole).
 public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private volatile Map<Constants.RoleEnum, Role> roles = Collections.emptyMap();
+
     @Override
-    @Transactional
     public Role findByName(final Constants.RoleEnum name) {
-        return roleRepository.findByName(name)
+        Role role = roles.get(name);
+        if (role != null) {
+            return role;
+        }
+
+        // Role chưa có trong bảng tra (ví dụ được seed sau khi khởi động): đọc từ database rồi nạp lại.
+        role = roleRepository.findByName(name)
                 .orElseThrow(() -> new EntityNotFoundException("Role not found " + name));
+        refresh();
+
+        return role;
     }
 
     @Override
     @Transactional
     public Role create(final Role role) {
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        applicationEventPublisher.publishEvent(new RoleChangedEvent(saved.getName()));
+
+        return saved;
+    }
+
+    /**
+     * Nạp lại toàn bộ bảng tra role từ database và thay thế bảng cũ trong một lần ghi.
+     */
+    @Override
+    public void refresh() {
+        Map<Constants.RoleEnum, Role> loaded = new EnumMap<>(Constants.RoleEnum.class);
+        roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+        roles = Collections.unmodifiableMap(loaded);
+        log.info("[Role] Loaded {} roles", loaded.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    // Chạy sau khi transaction phát sự kiện đã commit, để đọc được role mới.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleChanged(final RoleChangedEvent event) {
+        refresh();
     }
 }
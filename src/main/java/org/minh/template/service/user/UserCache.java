@@ -0,0 +1,15 @@
+package org.minh.template.service.user;
+
+import org.minh.template.entity.User;
+
+import java.util.UUID;
+
+public interface UserCache {
+    User findById(UUID id);
+
+    User findByEmail(String email);
+
+    void evict(User user);
+
+    void clear();
+}
@@ -0,0 +1,26 @@
+package org.minh.template.service.user;
+
+import org.minh.template.entity.User;
+
+import java.util.UUID;
+
+/**
+ * Phát ra sau khi một user được tạo, sửa hoặc xóa, để các bảng tra trong bộ nhớ (gợi ý tìm kiếm) cập nhật theo.
+ *
+ * @param id       id của user
+ * @param fullName họ tên mới, null nếu user bị xóa
+ * @param email    email mới, null nếu user bị xóa
+ */
+public record UserChangedEvent(UUID id, String fullName, String email) {
+    public static UserChangedEvent saved(final User user) {
+        return new UserChangedEvent(user.getId(), user.getFullName(), user.getEmail());
+    }
+
+    public static UserChangedEvent deleted(final UUID id) {
+        return new UserChangedEvent(id, null, null);
+    }
+
+    public boolean isDeleted() {
+        return email == null;
+    }
+}
@@ -0,0 +1,10 @@
+package org.minh.template.service.user;
+
+import org.minh.template.util.Constants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    long export(Constants.ExportFormatEnum format, OutputStream outputStream) throws IOException;
+}
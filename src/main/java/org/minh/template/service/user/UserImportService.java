@@ -0,0 +1,10 @@
+package org.minh.template.service.user;
+
+import org.minh.template.dto.response.user.ImportUserResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    ImportUserResponse importUsers(InputStream inputStream) throws IOException;
+}
@@ -0,0 +1,16 @@
+package org.minh.template.service.user;
+
+import org.minh.template.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+public interface UserSearchService {
+    Page<User> search(String query, Pageable pageable);
+
+    void index(Collection<User> users);
+
+    CompletableFuture<Void> reindex();
+}
@@ -4,13 +4,16 @@ import org.minh.template.dto.request.auth.RegisterRequest;
 import org.minh.template.dto.request.user.UpdateUserRequest;
 import org.minh.template.entity.User;
 import org.minh.template.security.JwtUserDetails;
+import org.minh.template.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.BindException;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
     User getUser();
@@ -21,14 +24,24 @@ public interface UserService {
 
     Page<User> findAll(Pageable pageable);
 
+    Slice<User> findSlice(Pageable pageable);
+
+    long estimateCount();
+
+    KeysetPage<User> findAll(String cursor, int limit, String sortType, String sortBy);
+
     User findById(UUID id);
 
     User findByEmail(String email);
 
+    User findCredentialsByEmail(String email);
+
     UserDetails loadUserByEmail(String email);
 
     User register(RegisterRequest request) throws BindException;
 
+    CompletableFuture<User> registerAsync(RegisterRequest request);
+
     User updateMe(UpdateUserRequest request) throws BindException;
 
     void delete(String id);
@@ -0,0 +1,11 @@
+package org.minh.template.service.user;
+
+import org.minh.template.util.TypeaheadIndex;
+
+import java.util.List;
+
+public interface UserTypeaheadService {
+    List<TypeaheadIndex.Hit> suggest(String prefix, int limit);
+
+    void rebuild();
+}
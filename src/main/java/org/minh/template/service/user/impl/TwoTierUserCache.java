@@ -0,0 +1,354 @@
+package org.minh.template.service.user.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.config.datasource.DataSourceRouting;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.UserCache;
+import org.minh.template.util.AsyncCaches;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+// Cache hai tầng cho user (kèm role), khóa theo id và theo email:
+// - L1: Caffeine trong bộ nhớ của từng node, có giới hạn số phần tử. Sau refresh-after entry được nạp lại bất đồng bộ
+//   từ database trong khi vẫn trả bản cũ (stale-while-revalidate); nếu database lỗi thì giữ bản cũ tới hết ttl.
+//   Khi miss, thread gọi tự nạp bên ngoài lock của cache (AsyncCaches), không ghim virtual thread trong lúc chờ I/O.
+//   Nạp lại nền (refresh) chạy trên applicationTaskExecutor, không chiếm ForkJoinPool.commonPool() bằng JDBC/Redis.
+// - L2: Redis dùng chung giữa các node. Entry có hạn mềm (redis-refresh-after): quá hạn mềm thì đọc lại database,
+//   database lỗi thì vẫn trả bản cũ cho tới hạn cứng (redis-ttl).
+// - Ghi (updateMe, register, delete) xóa cả hai tầng ngay và một lần nữa sau khi transaction commit, rồi publish lên
+//   kênh pub/sub để L1 của các node khác cũng xóa.
+// Mỗi khóa L2 có một "epoch" tăng lên mỗi lần xóa. Node nạp từ database chỉ ghi lại vào L2 khi epoch không đổi kể từ
+// lúc đọc, nên một lần đọc chậm không ghi đè bản cũ lên sau khi user đã được cập nhật.
+public class TwoTierUserCache implements UserCache, MessageListener {
+    static final String KEY_PREFIX = "users:";
+
+    static final String EPOCH_PREFIX = "users:epoch:";
+
+    static final String INVALIDATION_CHANNEL = "users:invalidate";
+
+    private static final String ID = "id:";
+
+    private static final String EMAIL = "email:";
+
+    private static final String SEPARATOR = "\n";
+
+    // KEYS[1] = users:<key>, KEYS[2] = users:epoch:<key>; ARGV[1] = epoch đã đọc, ARGV[2] = giá trị, ARGV[3] = ttl (ms)
+    private static final RedisScript<Long> PUT_SCRIPT = RedisScript.of("""
+            local epoch = redis.call('GET', KEYS[2]) or ''
+            if epoch ~= ARGV[1] then
+              return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    // KEYS = các cặp (users:<key>, users:epoch:<key>); ARGV[1] = ttl của epoch (ms)
+    private static final RedisScript<Long> EVICT_SCRIPT = RedisScript.of("""
+            for i = 1, #KEYS, 2 do
+              redis.call('DEL', KEYS[i])
+              redis.call('INCR', KEYS[i + 1])
+              redis.call('PEXPIRE', KEYS[i + 1], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    private final UserRepository userRepository;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final long redisTtl;
+
+    private final long redisRefreshAfter;
+
+    private final AsyncLoadingCache<String, UserSnapshot> cache;
+
+    private final Loader loader = new Loader();
+
+    private final Counter l2Hits;
+
+    private final Counter l2Misses;
+
+    private final Counter l2Errors;
+
+    private final Counter l1Stale;
+
+    private final Counter l2Stale;
+
+    public TwoTierUserCache(
+            @Value("${app.user-cache.max-size:10000}") final long maxSize,
+            @Value("${app.user-cache.ttl:600000}") final long ttl,
+            @Value("${app.user-cache.refresh-after:60000}") final long refreshAfter,
+            @Value("${app.user-cache.redis-ttl:3600000}") final long redisTtl,
+            @Value("${app.user-cache.redis-refresh-after:300000}") final long redisRefreshAfter,
+            final UserRepository userRepository,
+            final StringRedisTemplate stringRedisTemplate,
+            final RedisMessageListenerContainer redisMessageListenerContainer,
+            final ObjectMapper objectMapper,
+            final AsyncTaskExecutor applicationTaskExecutor,
+            final MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.redisRefreshAfter = redisRefreshAfter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .refreshAfterWrite(refreshAfter, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .executor(applicationTaskExecutor)
+                .buildAsync(loader);
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... với tag cache=users (tầng L1)
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        this.l2Hits = l2Counter(meterRegistry, "hit");
+        this.l2Misses = l2Counter(meterRegistry, "miss");
+        this.l2Errors = l2Counter(meterRegistry, "error");
+        this.l1Stale = staleCounter(meterRegistry, "l1");
+        this.l2Stale = staleCounter(meterRegistry, "l2");
+        Gauge.builder("user.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate()).tag("tier", "l1")
+                .description("User cache hit ratio").register(meterRegistry);
+        Gauge.builder("user.cache.hit.ratio", this, TwoTierUserCache::l2HitRatio).tag("tier", "l2")
+                .description("User cache hit ratio").register(meterRegistry);
+
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Find user by id through L1, L2 then database.
+     *
+     * @param id UUID
+     * @return a new detached User, or null when not found
+     */
+    @Override
+    public User findById(final UUID id) {
+        UserSnapshot snapshot = AsyncCaches.get(cache, ID + id, loader::load);
+
+        return snapshot != null ? snapshot.toUser() : null;
+    }
+
+    /**
+     * Find user by email through L1, L2 then database.
+     *
+     * @param email String
+     * @return a new detached User, or null when not found
+     */
+    @Override
+    public User findByEmail(final String email) {
+        UserSnapshot snapshot = AsyncCaches.get(cache, EMAIL + email, loader::load);
+
+        return snapshot != null ? snapshot.toUser() : null;
+    }
+
+    /**
+     * Evict a user from both tiers on every node. Nếu đang trong transaction thì xóa thêm một lần sau khi commit,
+     * để không còn node nào giữ bản đọc trước commit.
+     *
+     * @param user User
+     */
+    @Override
+    public void evict(final User user) {
+        String[] keys = user.getEmail() != null
+                ? new String[]{ID + user.getId(), EMAIL + user.getEmail()}
+                : new String[]{ID + user.getId()};
+        evictEverywhere(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(keys);
+                }
+            });
+        }
+    }
+
+    /**
+     * Clear the local tier of this node.
+     */
+    @Override
+    public void clear() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        cache.synchronous().invalidateAll(
+                List.of(new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR)));
+    }
+
+    // Thứ tự: L2 trước, rồi L1, rồi báo các node khác. Lần nạp L1 bắt đầu sau đó chỉ còn thấy database.
+    private void evictEverywhere(final String... keys) {
+        List<String> redisKeys = new ArrayList<>(keys.length * 2);
+        for (String key : keys) {
+            redisKeys.add(KEY_PREFIX + key);
+            redisKeys.add(EPOCH_PREFIX + key);
+        }
+        try {
+            stringRedisTemplate.execute(EVICT_SCRIPT, redisKeys, String.valueOf(redisTtl));
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.error("[User] Could not evict user from Redis: {}", e.getMessage());
+        }
+        cache.synchronous().invalidateAll(List.of(keys));
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(SEPARATOR, keys));
+        } catch (RuntimeException e) {
+            // Các node khác vẫn tự làm mới sau refresh-after và hết hạn sau ttl.
+            log.error("[User] Could not publish user invalidation: {}", e.getMessage());
+        }
+    }
+
+    // Đọc từ database chính, không từ replica: bản nạp được giữ trong cache tới ttl, không được mang độ trễ của replica.
+    private UserSnapshot loadFromDatabase(final String key) {
+        return DataSourceRouting.primary(() -> {
+            if (key.startsWith(ID)) {
+                return userRepository.findById(UUID.fromString(key.substring(ID.length())))
+                        .map(UserSnapshot::of)
+                        .orElse(null);
+            }
+
+            return userRepository.findByEmail(key.substring(EMAIL.length()))
+                    .map(UserSnapshot::of)
+                    .orElse(null);
+        });
+    }
+
+    /**
+     * Đọc giá trị và epoch của khóa trong một lệnh MGET. Trả về null nếu Redis lỗi (khi đó bỏ qua L2).
+     */
+    private L2Lookup readL2(final String key) {
+        try {
+            List<String> values = stringRedisTemplate.opsForValue()
+                    .multiGet(List.of(KEY_PREFIX + key, EPOCH_PREFIX + key));
+            if (values == null || values.size() < 2) {
+                return new L2Lookup(null, "");
+            }
+            L2Entry entry = values.get(0) != null ? objectMapper.readValue(values.get(0), L2Entry.class) : null;
+
+            return new L2Lookup(entry, values.get(1) != null ? values.get(1) : "");
+        } catch (RuntimeException | JsonProcessingException e) {
+            l2Errors.increment();
+            log.warn("[User] Could not read user cache from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeL2(final String key, final UserSnapshot snapshot, final String epoch) {
+        try {
+            String value = objectMapper.writeValueAsString(
+                    new L2Entry(System.currentTimeMillis() + redisRefreshAfter, snapshot));
+            stringRedisTemplate.execute(PUT_SCRIPT, List.of(KEY_PREFIX + key, EPOCH_PREFIX + key), epoch, value,
+                    String.valueOf(redisTtl));
+        } catch (RuntimeException | JsonProcessingException e) {
+            l2Errors.increment();
+            log.warn("[User] Could not write user cache to Redis: {}", e.getMessage());
+        }
+    }
+
+    private double l2HitRatio() {
+        double hits = l2Hits.count();
+        double total = hits + l2Misses.count();
+
+        return total == 0 ? 1.0 : hits / total;
+    }
+
+    private static Counter l2Counter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("user.cache.l2.gets").tag("result", result)
+                .description("User cache lookups in Redis").register(meterRegistry);
+    }
+
+    private static Counter staleCounter(final MeterRegistry meterRegistry, final String tier) {
+        return Counter.builder("user.cache.stale").tag("tier", tier)
+                .description("Stale users served because the database could not be reached").register(meterRegistry);
+    }
+
+    /**
+     * Giá trị lưu trong L2: bản chụp user và thời điểm hết hạn mềm (epoch millis).
+     */
+    record L2Entry(long refreshAt, UserSnapshot user) {
+    }
+
+    private record L2Lookup(L2Entry entry, String epoch) {
+    }
+
+    private final class Loader implements CacheLoader<String, UserSnapshot> {
+        // L1 miss: thử L2, sau đó mới tới database.
+        @Override
+        public UserSnapshot load(final String key) {
+            L2Lookup lookup = readL2(key);
+            L2Entry entry = lookup != null ? lookup.entry() : null;
+            if (entry != null && entry.refreshAt() > System.currentTimeMillis()) {
+                l2Hits.increment();
+                return entry.user();
+            }
+
+            l2Misses.increment();
+            UserSnapshot snapshot;
+            try {
+                snapshot = loadFromDatabase(key);
+            } catch (RuntimeException e) {
+                if (entry == null) {
+                    throw e;
+                }
+                // Bản trong L2 đã quá hạn mềm nhưng database đang lỗi: vẫn trả bản cũ.
+                l2Stale.increment();
+                log.warn("[User] Database unavailable, serving stale user {}: {}", key, e.getMessage());
+                return entry.user();
+            }
+            if (snapshot != null && lookup != null) {
+                writeL2(key, snapshot, lookup.epoch());
+            }
+
+            return snapshot;
+        }
+
+        // Làm mới bất đồng bộ sau refresh-after. Nếu ném lỗi, Caffeine giữ nguyên bản cũ trong L1.
+        @Override
+        public UserSnapshot reload(final String key, final UserSnapshot oldValue) {
+            L2Lookup lookup = readL2(key);
+            UserSnapshot snapshot;
+            try {
+                snapshot = loadFromDatabase(key);
+            } catch (RuntimeException e) {
+                l1Stale.increment();
+                log.warn("[User] Database unavailable, keeping stale user {}: {}", key, e.getMessage());
+                throw e;
+            }
+            if (snapshot != null && lookup != null) {
+                writeL2(key, snapshot, lookup.epoch());
+            }
+
+            return snapshot;
+        }
+    }
+}
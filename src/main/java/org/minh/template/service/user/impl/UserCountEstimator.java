@@ -0,0 +1,40 @@
+package org.minh.template.service.user.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.minh.template.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+// Tổng số user ước lượng cho các màn hình danh sách: lấy từ thống kê của planner (UserRepository.estimateCount)
+// và giữ trong bộ nhớ. Sau refresh-after giá trị được nạp lại bất đồng bộ, request vẫn nhận giá trị cũ ngay lập tức,
+// nên các màn hình danh sách không còn chạy COUNT(*) trên mỗi request.
+public class UserCountEstimator {
+    private static final String KEY = "users";
+
+    private final LoadingCache<String, Long> cache;
+
+    public UserCountEstimator(
+            @Value("${app.paging.estimate-refresh-after:60000}") final long refreshAfter,
+            @Value("${app.paging.estimate-ttl:600000}") final long ttl,
+            final UserRepository userRepository
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+                .refreshAfterWrite(refreshAfter, TimeUnit.MILLISECONDS)
+                .build(key -> userRepository.estimateCount());
+    }
+
+    /**
+     * Estimated number of users, refreshed in the background.
+     *
+     * @return long
+     */
+    public long estimate() {
+        return cache.get(KEY);
+    }
+}
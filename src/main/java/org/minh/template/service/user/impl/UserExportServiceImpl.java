@@ -0,0 +1,155 @@
+package org.minh.template.service.user.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.dto.response.user.UserResponse;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.UserExportService;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+// Export toàn bộ user ra NDJSON/CSV với bộ nhớ không đổi: đọc bằng cursor chỉ-tiến (fetch-size dòng mỗi lần),
+// ghi từng dòng thẳng ra response; cứ flush-every dòng thì đẩy dữ liệu xuống client và clear persistence context
+// để các entity đã ghi được GC thu hồi. Heap không tăng theo số dòng export.
+public class UserExportServiceImpl implements UserExportService {
+    private static final String[] CSV_HEADER = {"id", "email", "name", "lastName", "gender", "phoneNumber",
+            "birthday", "role", "createdAt", "updatedAt"};
+
+    private final UserRepository userRepository;
+
+    private final ObjectWriter userResponseWriter;
+
+    private final int fetchSize;
+
+    private final int flushEvery;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserExportServiceImpl(
+            @Value("${app.export.fetch-size:500}") final int fetchSize,
+            @Value("${app.export.flush-every:1000}") final int flushEvery,
+            final UserRepository userRepository,
+            final ObjectMapper objectMapper
+    ) {
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+        this.userRepository = userRepository;
+        // Không flush sau mỗi object: việc đẩy dữ liệu xuống client do vòng lặp export quyết định (mỗi flush-every dòng).
+        this.userResponseWriter = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write every user to the output stream, ordered by (createdAt, id).
+     *
+     * @param format       Constants.ExportFormatEnum
+     * @param outputStream OutputStream (not closed)
+     * @return long number of exported users
+     * @throws IOException when the client disconnects or the stream fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long export(final Constants.ExportFormatEnum format, final OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = format == Constants.ExportFormatEnum.NDJSON
+                ? userResponseWriter.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)
+                : null;
+        if (format == Constants.ExportFormatEnum.CSV) {
+            writeCsvRow(writer, CSV_HEADER);
+        }
+
+        long count = 0;
+        try (Stream<User> users = userRepository.streamAll(fetchSize)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserResponse user = UserResponse.convert(iterator.next());
+                if (generator != null) {
+                    userResponseWriter.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } else {
+                    writeCsvRow(writer, toCsvRow(user));
+                }
+
+                if (++count % flushEvery == 0) {
+                    if (generator != null) {
+                        generator.flush();
+                    }
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+        log.info("[Export] Exported {} users as {}", count, format.getValue());
+
+        return count;
+    }
+
+    private static String[] toCsvRow(final UserResponse user) {
+        return new String[]{user.getId(), user.getEmail(), user.getName(), user.getLastName(), user.getGender(),
+                user.getPhoneNumber(), format(user.getBirthday()), user.getRole(), format(user.getCreatedAt()),
+                format(user.getUpdatedAt())};
+    }
+
+    private static String format(final LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static void writeCsvRow(final Writer writer, final String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: giá trị chứa dấu phẩy, nháy kép hoặc xuống dòng được đặt trong nháy kép.
+    // Giá trị bắt đầu bằng = + - @ được thêm dấu ' phía trước để Excel không hiểu nhầm thành công thức.
+    private static void writeCsvValue(final Writer writer, final String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        String text = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
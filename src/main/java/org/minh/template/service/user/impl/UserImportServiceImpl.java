@@ -0,0 +1,267 @@
+package org.minh.template.service.user.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.dto.request.user.ImportUserRequest;
+import org.minh.template.dto.response.user.ImportUserResponse;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.minh.template.service.role.RoleService;
+import org.minh.template.service.user.UserChangedEvent;
+import org.minh.template.service.user.UserImportService;
+import org.minh.template.service.user.UserSearchService;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@Slf4j
+// Import user hàng loạt từ NDJSON (mỗi dòng một ImportUserRequest), xử lý theo từng chunk:
+// 1. validate cả chunk, kiểm tra email trùng trong file và trong database bằng một câu truy vấn cho cả chunk;
+// 2. băm mật khẩu song song trên pool BCrypt (PasswordHashingService.encodeAll);
+// 3. id UUID sinh sẵn phía ứng dụng, chèn cả chunk bằng một JDBC batch trong một transaction, rồi thêm vào index
+//    tìm kiếm (JDBC không đi qua Hibernate nên không được index tự động).
+// Dòng lỗi được ghi lại kèm số dòng và bỏ qua, không làm hỏng cả lần import. Nếu batch bị từ chối (ví dụ email vừa
+// được đăng ký song song), chunk đó được chèn lại từng dòng để chỉ loại ra đúng các dòng lỗi.
+public class UserImportServiceImpl implements UserImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final UserRepository userRepository;
+
+    private final PasswordHashingService passwordHashingService;
+
+    private final RoleService roleService;
+
+    private final UserSearchService userSearchService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader requestReader;
+
+    private final int chunkSize;
+
+    public UserImportServiceImpl(
+            @Value("${app.import.chunk-size:1000}") final int chunkSize,
+            final UserRepository userRepository,
+            final PasswordHashingService passwordHashingService,
+            final RoleService roleService,
+            final UserSearchService userSearchService,
+            final ApplicationEventPublisher applicationEventPublisher,
+            final Validator validator,
+            final PlatformTransactionManager transactionManager,
+            final ObjectMapper objectMapper
+    ) {
+        this.chunkSize = chunkSize;
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.roleService = roleService;
+        this.userSearchService = userSearchService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requestReader = objectMapper.readerFor(ImportUserRequest.class);
+    }
+
+    /**
+     * Import users from an NDJSON stream, one ImportUserRequest per line. Blank lines are skipped.
+     *
+     * @param inputStream InputStream (not closed)
+     * @return ImportUserResponse with counters and rejected rows
+     * @throws IOException when the stream cannot be read
+     */
+    @Override
+    public ImportUserResponse importUsers(final InputStream inputStream) throws IOException {
+        Result result = new Result();
+        Role role = roleService.findByName(Constants.RoleEnum.USER);
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!StringUtils.hasText(line)) {
+                continue;
+            }
+
+            result.total++;
+            try {
+                chunk.add(new Row(lineNumber, requestReader.readValue(line)));
+            } catch (JsonMappingException e) {
+                // JSON hợp lệ nhưng sai kiểu dữ liệu (ví dụ birthDate không đúng định dạng)
+                String field = e.getPath().isEmpty() || e.getPath().get(0).getFieldName() == null
+                        ? "line" : e.getPath().get(0).getFieldName();
+                result.reject(lineNumber, null, Map.of(field, "Invalid value"));
+            } catch (JsonProcessingException e) {
+                result.reject(lineNumber, null, Map.of("line", "Invalid JSON"));
+            }
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, role, seenEmails, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, role, seenEmails, result);
+        }
+        log.info("[Import] Read {} rows, imported {} users, rejected {}", result.total, result.imported,
+                result.failed);
+
+        return ImportUserResponse.builder()
+                .total(result.total)
+                .imported(result.imported)
+                .failed(result.failed)
+                .errors(result.errors)
+                .build();
+    }
+
+    private void importChunk(final List<Row> chunk, final Role role, final Set<String> seenEmails,
+                             final Result result) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Map<String, String> errors = validate(row.request());
+            if (errors.isEmpty() && !seenEmails.add(row.request().getEmail())) {
+                errors.put("email", "Duplicate email in file");
+            }
+            if (errors.isEmpty()) {
+                valid.add(row);
+            } else {
+                result.reject(row.line(), row.request().getEmail(), errors);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                valid.stream().map(row -> row.request().getEmail()).toList()));
+        if (!existing.isEmpty()) {
+            valid.removeIf(row -> {
+                if (!existing.contains(row.request().getEmail())) {
+                    return false;
+                }
+                result.reject(row.line(), row.request().getEmail(), Map.of("email", "Email already exists"));
+                return true;
+            });
+        }
+
+        List<String> rawPasswords = valid.stream()
+                .filter(row -> !StringUtils.hasText(row.request().getPasswordHash()))
+                .map(row -> row.request().getPassword())
+                .toList();
+        List<String> hashes = passwordHashingService.encodeAll(rawPasswords);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>(valid.size());
+        int hashIndex = 0;
+        for (Row row : valid) {
+            String password = StringUtils.hasText(row.request().getPasswordHash())
+                    ? row.request().getPasswordHash() : hashes.get(hashIndex++);
+            users.add(toUser(row.request(), password, role, now));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.insertAll(users));
+            result.imported += users.size();
+            userSearchService.index(users);
+            users.forEach(user -> applicationEventPublisher.publishEvent(UserChangedEvent.saved(user)));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("[Import] Batch rejected, retrying {} rows one by one: {}", users.size(), e.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userRepository.insertAll(List.of(user)));
+                    result.imported++;
+                    userSearchService.index(List.of(user));
+                    applicationEventPublisher.publishEvent(UserChangedEvent.saved(user));
+                } catch (DataIntegrityViolationException rowException) {
+                    result.reject(valid.get(i).line(), user.getEmail(), Map.of("email",
+                            rowException instanceof DuplicateKeyException ? "Email already exists"
+                                    : "Constraint violation"));
+                }
+            }
+        }
+    }
+
+    private Map<String, String> validate(final ImportUserRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<ImportUserRequest> violation : validator.validate(request)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        if (!StringUtils.hasText(request.getPassword()) && !StringUtils.hasText(request.getPasswordHash())) {
+            errors.put("password", "Password or password hash is required");
+        }
+
+        return errors;
+    }
+
+    // Id sinh sẵn (client-side) để cả chunk đi chung một batch, không cần lấy id từ database cho từng dòng.
+    private static User toUser(final ImportUserRequest request, final String password, final Role role,
+                               final LocalDateTime now) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(request.getEmail());
+        user.setPassword(password);
+        user.setName(request.getName());
+        user.setLastName(request.getLastName());
+        user.setPhoneNumber(request.getPhoneNumber());
+        user.setGender(request.getGender());
+        user.setBirthDate(request.getBirthDate());
+        user.setRole(role);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+
+        return user;
+    }
+
+    private record Row(long line, ImportUserRequest request) {
+    }
+
+    private static final class Result {
+        private final List<ImportUserResponse.RowError> errors = new ArrayList<>();
+
+        private long total;
+
+        private long imported;
+
+        private long failed;
+
+        private void reject(final long line, final String email, final Map<String, String> items) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportUserResponse.RowError(line, email, items));
+            }
+        }
+    }
+}
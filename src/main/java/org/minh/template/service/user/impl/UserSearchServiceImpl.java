@@ -0,0 +1,167 @@
+package org.minh.template.service.user.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.search.engine.search.common.BooleanOperator;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.UserSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+// Tìm kiếm user toàn văn trên index Lucene (Hibernate Search) thay cho LIKE '%x%' (quét toàn bảng):
+// - name, lastName, email: analyzer tiếng Việt bỏ dấu, index kèm edge n-gram nên gõ phần đầu của từ là tìm thấy;
+// - phoneNumber: chỉ giữ chữ số, tìm theo phần đầu của số điện thoại.
+// Index được cập nhật tự động khi entity thay đổi qua JPA (updateMe, delete). Các đường ghi bằng JDBC (đăng ký,
+// import) không đi qua Hibernate nên gọi index(...) sau khi chèn. Lần đầu (index trống) dựng lại bằng mass indexer.
+public class UserSearchServiceImpl implements UserSearchService {
+    private static final String[] TEXT_FIELDS = {"name", "lastName", "email"};
+
+    private static final String PHONE_FIELD = "phoneNumber";
+
+    // Số chữ số tối thiểu để coi từ khóa là (một phần) số điện thoại
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    private final UserRepository userRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int massIndexerThreads;
+
+    private final int massIndexerBatchSize;
+
+    private final boolean indexOnStartup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserSearchServiceImpl(
+            @Value("${app.search.mass-indexer.threads:4}") final int massIndexerThreads,
+            @Value("${app.search.mass-indexer.batch-size:500}") final int massIndexerBatchSize,
+            @Value("${app.search.index-on-startup:true}") final boolean indexOnStartup,
+            final UserRepository userRepository,
+            final EntityManagerFactory entityManagerFactory
+    ) {
+        this.massIndexerThreads = massIndexerThreads;
+        this.massIndexerBatchSize = massIndexerBatchSize;
+        this.indexOnStartup = indexOnStartup;
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Full-text search over name, lastName, email (diacritics-insensitive, word prefixes) and phone number prefix.
+     * Every word of the query must match; results are ordered by relevance.
+     *
+     * @param query    String search terms, blank returns every user
+     * @param pageable Pageable (sort is ignored, hits are ordered by score)
+     * @return Page of User with role fetched
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<User> search(final String query, final Pageable pageable) {
+        SearchSession searchSession = Search.session(entityManager);
+        String digits = query == null ? "" : query.replaceAll("[^0-9]", "");
+
+        SearchResult<UUID> result = searchSession.search(User.class)
+                .select(f -> f.id(UUID.class))
+                .where(f -> !StringUtils.hasText(query) ? f.matchAll() : f.bool().with(b -> {
+                    b.should(f.simpleQueryString().fields(TEXT_FIELDS).matching(query)
+                            .defaultOperator(BooleanOperator.AND));
+                    if (digits.length() >= MIN_PHONE_DIGITS) {
+                        b.should(f.wildcard().field(PHONE_FIELD).matching(digits + "*"));
+                    }
+                }))
+                .fetch((int) pageable.getOffset(), pageable.getPageSize());
+
+        List<UUID> ids = result.hits();
+        // Nạp entity bằng một câu truy vấn rồi sắp lại theo thứ tự điểm của kết quả tìm kiếm.
+        Map<UUID, User> users = userRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> content = ids.stream().map(users::get).filter(Objects::nonNull).toList();
+
+        return new PageImpl<>(content, pageable, result.total().hitCount());
+    }
+
+    /**
+     * Add or update index documents for users written outside Hibernate (JDBC inserts). The documents are built
+     * from the given instances, no database access. Failures are logged, not thrown.
+     *
+     * @param users Collection of User
+     */
+    @Override
+    public void index(final Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+
+        // Dữ liệu đã commit: lỗi ghi index chỉ được log, không làm hỏng request (reindex() dựng lại được index).
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            SearchIndexingPlan indexingPlan = Search.session(em).indexingPlan();
+            users.forEach(indexingPlan::addOrUpdate);
+            indexingPlan.execute();
+        } catch (RuntimeException e) {
+            log.error("[Search] Indexing {} users failed", users.size(), e);
+        }
+    }
+
+    /**
+     * Rebuild the user index from the database in the background (parallel mass indexer).
+     *
+     * @return CompletableFuture completed when the index has been rebuilt
+     */
+    @Override
+    public CompletableFuture<Void> reindex() {
+        log.info("[Search] Rebuilding user index with {} threads, batch size {}", massIndexerThreads,
+                massIndexerBatchSize);
+
+        return Search.mapping(entityManagerFactory).scope(User.class).massIndexer()
+                .threadsToLoadObjects(massIndexerThreads)
+                .batchSizeToLoadObjects(massIndexerBatchSize)
+                .start()
+                .toCompletableFuture()
+                .thenRun(() -> log.info("[Search] User index rebuilt"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexOnStartup() {
+        if (!indexOnStartup) {
+            return;
+        }
+
+        long indexed;
+        try (EntityManager em = entityManagerFactory.createEntityManager()) {
+            indexed = Search.session(em).search(User.class).where(f -> f.matchAll()).fetchTotalHitCount();
+        }
+        if (indexed == 0 && userRepository.count() > 0) {
+            reindex().exceptionally(e -> {
+                log.error("[Search] Rebuilding user index failed", e);
+                return null;
+            });
+        }
+    }
+}
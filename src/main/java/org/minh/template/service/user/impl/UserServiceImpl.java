@@ -3,52 +3,94 @@ package org.minh.template.service.user.impl;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.minh.template.config.datasource.DataSourceRouting;
 import org.minh.template.dto.request.auth.RegisterRequest;
 import org.minh.template.dto.request.user.UpdateUserRequest;
+import org.minh.template.entity.Role;
 import org.minh.template.entity.User;
 import org.minh.template.exception.NotFoundException;
 import org.minh.template.repository.UserRepository;
+import org.minh.template.repository.UserRepositoryCustom;
 import org.minh.template.security.JwtUserDetails;
 import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.minh.template.service.auth.TokenRevocationService;
 import org.minh.template.service.role.RoleService;
+import org.minh.template.service.user.UserCache;
+import org.minh.template.service.user.UserChangedEvent;
+import org.minh.template.service.user.UserSearchService;
 import org.minh.template.service.user.UserService;
 import org.minh.template.util.Constants;
+import org.minh.template.util.KeysetCursor;
+import org.minh.template.util.KeysetPage;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
 public class UserServiceImpl implements UserService {
+    // Số dòng tối đa của một trang keyset, limit lớn hơn bị cắt về giá trị này.
+    private static final int MAX_KEYSET_LIMIT = 100;
+
     private final UserRepository userRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     private final MessageSourceService messageSourceService;
 
     private final RoleService roleService;
 
+    private final UserCache userCache;
+
+    private final UserCountEstimator userCountEstimator;
+
+    private final UserSearchService userSearchService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final JwtTokenService jwtTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    // Executor của ứng dụng (Spring Boot) cho phần ghi database/index sau BCrypt, không chạy trên pool băm mật khẩu.
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
     public Authentication getAuthentication() {
         return SecurityContextHolder.getContext().getAuthentication();
     }
 
+    // Các hàm đọc user đi qua cache hai tầng (UserCache), không mở transaction riêng khi cache hit.
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User getUser() {
         Authentication authentication = getAuthentication();
         if (authentication.isAuthenticated()) {
@@ -70,11 +112,86 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable);
     }
 
+    /**
+     * Offset page without SELECT COUNT(*); Slice.hasNext() tells whether another page exists.
+     *
+     * @param pageable Pageable
+     * @return Slice of User
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<User> findSlice(final Pageable pageable) {
+        return userRepository.findAllBy(pageable);
+    }
+
+    /**
+     * Estimated total number of users (planner statistics, cached and refreshed in the background).
+     *
+     * @return long
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long estimateCount() {
+        return userCountEstimator.estimate();
+    }
+
+    /**
+     * Phân trang keyset (cursor). Trang đầu tiên: cursor null, sắp xếp theo sortBy/sortType (mặc định createdAt desc).
+     * Các trang sau: cursor lấy từ nextCursor/prevCursor của trang trước, sortBy/sortType được lấy từ cursor.
+     *
+     * @param cursor         String opaque cursor or null
+     * @param requestedLimit int, clamped to 100 rows
+     * @param sortType       String asc or desc
+     * @param sortBy         String createdAt, email, name or lastName
+     * @return KeysetPage of User
+     */
     @Override
     @Transactional(readOnly = true)
+    public KeysetPage<User> findAll(final String cursor, final int requestedLimit, final String sortType,
+                                    final String sortBy) {
+        if (requestedLimit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int limit = Math.min(requestedLimit, MAX_KEYSET_LIMIT);
+
+        KeysetCursor position = StringUtils.hasText(cursor) ? KeysetCursor.decode(cursor) : null;
+        String field = position != null ? position.sortBy() : (StringUtils.hasText(sortBy) ? sortBy : "createdAt");
+        Sort.Direction direction = position != null ? position.direction()
+                : ("asc".equalsIgnoreCase(sortType) ? Sort.Direction.ASC : Sort.Direction.DESC);
+        if (!UserRepositoryCustom.KEYSET_SORT_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + field);
+        }
+        boolean backward = position != null && position.backward();
+
+        // Trang trước: duyệt ngược hướng từ phần tử biên rồi đảo lại thứ tự. Lấy thêm một dòng để biết còn trang hay không.
+        Sort.Direction scan = backward == direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        List<User> rows = userRepository.findKeyset(field, scan,
+                position != null ? parseSortKey(field, position.value()) : null,
+                position != null ? position.id() : null, limit + 1);
+        boolean more = rows.size() > limit;
+        List<User> users = new ArrayList<>(more ? rows.subList(0, limit) : rows);
+        if (backward) {
+            Collections.reverse(users);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrev = backward ? more : position != null;
+        String nextCursor = hasNext && !users.isEmpty()
+                ? toCursor(field, direction, false, users.get(users.size() - 1)) : null;
+        String prevCursor = hasPrev && !users.isEmpty() ? toCursor(field, direction, true, users.get(0)) : null;
+
+        return new KeysetPage<>(users, limit, nextCursor, prevCursor);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User findById(UUID id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
+        User user = userCache.findById(id);
+        if (user == null) {
+            throw new EntityNotFoundException("User not found with id: " + id);
+        }
+
+        return user;
     }
 
     /**
@@ -83,9 +200,28 @@ public class UserServiceImpl implements UserService {
      * @param email String.
      * @return User
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public User findByEmail(final String email) {
-        return userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email);
+        if (user == null) {
+            throw new NotFoundException(messageSourceService.get("not_found_with_param",
+                    new String[]{messageSourceService.get("user")}));
+        }
+
+        return user;
+    }
+
+    /**
+     * Find a user with its password hash, for authentication. Cache không lưu hash mật khẩu nên hàm này luôn đọc
+     * database chính (users JOIN FETCH roles, một câu SQL), kể cả khi có replica.
+     *
+     * @param email String
+     * @return User
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public User findCredentialsByEmail(final String email) {
+        return DataSourceRouting.primary(() -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
                         new String[]{messageSourceService.get("user")})));
     }
@@ -98,13 +234,9 @@ public class UserServiceImpl implements UserService {
      * @throws UsernameNotFoundException email not found exception.
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDetails loadUserByEmail(final String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
-                        new String[]{messageSourceService.get("user")})));
-
-        return JwtUserDetails.create(user);
+        return JwtUserDetails.create(findCredentialsByEmail(email));
     }
 
     /**
@@ -114,11 +246,13 @@ public class UserServiceImpl implements UserService {
      * @return UserDetails
      */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDetails loadUserById(final String id) {
-        User user = userRepository.findById(UUID.fromString(id))
-                .orElseThrow(() -> new NotFoundException(messageSourceService.get("not_found_with_param",
-                        new String[]{messageSourceService.get("user")})));
+        User user = userCache.findById(UUID.fromString(id));
+        if (user == null) {
+            throw new NotFoundException(messageSourceService.get("not_found_with_param",
+                    new String[]{messageSourceService.get("user")}));
+        }
 
         return JwtUserDetails.create(user);
     }
@@ -135,46 +269,115 @@ public class UserServiceImpl implements UserService {
         return (JwtUserDetails) authentication.getPrincipal();
     }
 
-    @Transactional
+    // Câu INSERT chạy trên thread khác (registerAsync) nên không mở transaction ở đây.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public User register(final RegisterRequest request) throws BindException {
-
-        if (userRepository.existsByEmail(request.getEmail())) {
-            BindingResult bindingResult = new BeanPropertyBindingResult(request, "request");
-            bindingResult.addError(new FieldError(bindingResult.getObjectName(), "email",
-                    "Email already exists"));
-            throw new BindException(bindingResult);
+        try {
+            return registerAsync(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BindException bindException) {
+                throw bindException;
+            }
+            throw e;
         }
+    }
 
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setName(request.getName());
-        user.setLastName(request.getLastName());
-        user.setBirthDate(request.getBirthDate());
-        user.setGender(request.getGender());
-        user.setPhoneNumber(request.getPhoneNumber());
-        user.setRole(roleService.findByName(Constants.RoleEnum.USER));
-        userRepository.save(user);
+    /**
+     * Register a user. BCrypt encode chạy trên pool băm mật khẩu; phần còn lại (chèn user, index, sự kiện) chạy tiếp
+     * trên executor của ứng dụng, không giữ thread băm mật khẩu. User được chèn bằng đúng một câu lệnh
+     * (INSERT ... ON CONFLICT (email) DO NOTHING): không kiểm tra existsByEmail trước, unique constraint của email
+     * quyết định. Hai request đăng ký cùng email chạy song song thì một request nhận 422 thay vì lỗi 500.
+     *
+     * @param request RegisterRequest
+     * @return CompletableFuture of User, completed exceptionally with BindException when the email already exists
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<User> registerAsync(final RegisterRequest request) {
+        Role role = roleService.findByName(Constants.RoleEnum.USER);
 
-        return user;
+        return passwordHashingService.encode(request.getPassword()).thenApplyAsync(password -> {
+            LocalDateTime now = LocalDateTime.now();
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setEmail(request.getEmail());
+            user.setPassword(password);
+            user.setName(request.getName());
+            user.setLastName(request.getLastName());
+            user.setBirthDate(request.getBirthDate());
+            user.setGender(request.getGender());
+            user.setPhoneNumber(request.getPhoneNumber());
+            user.setRole(role);
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            if (!userRepository.insertIfAbsent(user)) {
+                BindingResult bindingResult = new BeanPropertyBindingResult(request, "request");
+                bindingResult.addError(new FieldError(bindingResult.getObjectName(), "email",
+                        "Email already exists"));
+                throw new CompletionException(new BindException(bindingResult));
+            }
+            userCache.evict(user);
+            // Chèn bằng JDBC không đi qua Hibernate: tự thêm user vào index tìm kiếm.
+            userSearchService.index(List.of(user));
+            applicationEventPublisher.publishEvent(UserChangedEvent.saved(user));
+
+            return user;
+        }, applicationTaskExecutor);
     }
 
     @Transactional
     @Override
     public User updateMe(UpdateUserRequest request) throws BindException {
-        User user = getUser();
+        // Ghi trên entity managed đọc thẳng từ database, không dùng bản trong cache.
+        User user = findManagedById(getUser().getId());
         user.setBirthDate(request.getBirthDate());
         user.setGender(request.getGender());
         user.setPhoneNumber(request.getPhoneNumber());
         user.setName(request.getName());
         user.setLastName(request.getLastName());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.evict(saved);
+        applicationEventPublisher.publishEvent(UserChangedEvent.saved(saved));
+
+        return saved;
     }
 
     @Transactional
     @Override
     public void delete(String id) {
-        userRepository.delete(findById(UUID.fromString(id)));
+        User user = findManagedById(UUID.fromString(id));
+        userRepository.delete(user);
+        userCache.evict(user);
+        // Filter dựng principal từ claim của token, không truy vấn database: phải xóa mọi phiên và ghi jti của chúng
+        // vào stream thu hồi, nếu không token đã phát hành vẫn dùng được tới khi hết hạn.
+        tokenRevocationService.revokeSessions(jwtTokenService.deleteAllByUserId(user.getId()));
+        applicationEventPublisher.publishEvent(UserChangedEvent.deleted(user.getId()));
+    }
+
+    private static String toCursor(final String field, final Sort.Direction direction, final boolean backward,
+                                   final User user) {
+        Object key = switch (field) {
+            case "createdAt" -> user.getCreatedAt();
+            case "email" -> user.getEmail();
+            case "name" -> user.getName();
+            case "lastName" -> user.getLastName();
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + field);
+        };
+
+        return new KeysetCursor(field, direction, backward, String.valueOf(key), user.getId()).encode();
+    }
+
+    private static Object parseSortKey(final String field, final String value) {
+        try {
+            return "createdAt".equals(field) ? LocalDateTime.parse(value) : value;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private User findManagedById(final UUID id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
     }
 }
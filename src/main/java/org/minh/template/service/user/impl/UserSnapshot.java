@@ -0,0 +1,48 @@
+package org.minh.template.service.user.impl;
+
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.util.Constants;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bản chụp immutable của một user (kèm role) được lưu trong cache L1/L2.
+ * Mỗi lần đọc cache tạo ra một User detached mới, nên nơi gọi sửa User không làm hỏng dữ liệu trong cache.
+ * Role được dựng lại từ id và tên (tham chiếu khóa ngoại), không truy vấn database.
+ * Không chứa hash mật khẩu (bản chụp được ghi vào Redis): User lấy từ cache có password null, đăng nhập đọc hash từ
+ * database chính (UserService.findCredentialsByEmail).
+ */
+record UserSnapshot(UUID id, String email, String name, String lastName, String phoneNumber,
+                    String gender, LocalDateTime birthDate, UUID roleId, Constants.RoleEnum roleName,
+                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+    static UserSnapshot of(final User user) {
+        Role role = user.getRole();
+
+        return new UserSnapshot(user.getId(), user.getEmail(), user.getName(),
+                user.getLastName(), user.getPhoneNumber(), user.getGender(), user.getBirthDate(),
+                role != null ? role.getId() : null, role != null ? role.getName() : null,
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setName(name);
+        user.setLastName(lastName);
+        user.setPhoneNumber(phoneNumber);
+        user.setGender(gender);
+        user.setBirthDate(birthDate);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        if (roleName != null) {
+            Role role = new Role(roleName);
+            role.setId(roleId);
+            user.setRole(role);
+        }
+
+        return user;
+    }
+}
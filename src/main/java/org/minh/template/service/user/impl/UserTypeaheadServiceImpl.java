@@ -0,0 +1,201 @@
+package org.minh.template.service.user.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.minh.template.config.datasource.DataSourceRouting;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.repository.UserRepositoryCustom;
+import org.minh.template.service.user.UserChangedEvent;
+import org.minh.template.service.user.UserTypeaheadService;
+import org.minh.template.util.TypeaheadIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+// Gợi ý user theo tiền tố họ tên / email cho ô tìm kiếm (mỗi phím gõ một request), trả lời hoàn toàn từ bộ nhớ:
+// - index chính: TypeaheadIndex (FST) dựng từ một lượt quét stream bảng users lúc khởi động và định kỳ sau đó;
+// - thay đổi sau lần dựng (UserChangedEvent) nằm trong một skip list nhỏ; user đã thay đổi bị ẩn khỏi index chính
+//   và chỉ lấy từ skip list. Lần dựng kế tiếp gộp chúng vào index chính rồi xóa khỏi skip list.
+public class UserTypeaheadServiceImpl implements UserTypeaheadService {
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Executor của ứng dụng (Spring Boot) cho lượt dựng lúc khởi động, không chiếm ForkJoinPool.commonPool().
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    private final int fetchSize;
+
+    // Thay đổi chưa có trong index chính: "chuỗi chuẩn hóa\0id" -> id
+    private final ConcurrentSkipListMap<String, UUID> pending = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<UUID, Change> changes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile TypeaheadIndex index = TypeaheadIndex.EMPTY;
+
+    public UserTypeaheadServiceImpl(
+            @Value("${app.typeahead.fetch-size:1000}") final int fetchSize,
+            final UserRepository userRepository,
+            final PlatformTransactionManager transactionManager,
+            final AsyncTaskExecutor applicationTaskExecutor,
+            final MeterRegistry meterRegistry
+    ) {
+        this.fetchSize = fetchSize;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        Gauge.builder("user.typeahead.entries", this, s -> s.index.entries())
+                .description("Entries in the typeahead index").register(meterRegistry);
+        Gauge.builder("user.typeahead.memory", this, s -> s.index.ramBytesUsed()).baseUnit("bytes")
+                .description("Heap used by the typeahead index").register(meterRegistry);
+        Gauge.builder("user.typeahead.pending", changes, Map::size)
+                .description("Users changed since the last typeahead index build").register(meterRegistry);
+    }
+
+    /**
+     * Top-K users whose full name or e-mail starts with the prefix (diacritics and case ignored), in lexicographic
+     * order of the matched text. Served from memory only.
+     *
+     * @param prefix String
+     * @param limit  int K
+     * @return List of TypeaheadIndex.Hit
+     */
+    @Override
+    public List<TypeaheadIndex.Hit> suggest(final String prefix, final int limit) {
+        String normalized = TypeaheadIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        List<TypeaheadIndex.Hit> hits = new ArrayList<>(index.search(normalized, limit, changes::containsKey));
+        for (Map.Entry<String, UUID> entry : pending.subMap(normalized, normalized + Character.MAX_VALUE)
+                .entrySet()) {
+            String key = entry.getKey();
+            hits.add(new TypeaheadIndex.Hit(entry.getValue(), key.substring(0, key.lastIndexOf(KEY_SEPARATOR))));
+            if (hits.size() >= 2 * limit) {
+                break;
+            }
+        }
+
+        Map<UUID, TypeaheadIndex.Hit> merged = new LinkedHashMap<>();
+        hits.stream().sorted(Comparator.comparing(TypeaheadIndex.Hit::text))
+                .forEach(hit -> merged.putIfAbsent(hit.id(), hit));
+
+        return merged.values().stream().limit(limit).toList();
+    }
+
+    /**
+     * Rebuild the index from a streaming scan of the users table and swap it in. Changes recorded before the scan
+     * started are dropped from the pending set since the new index contains them. Concurrent calls run one after
+     * another.
+     */
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long since = sequence.get();
+            long start = System.nanoTime();
+            // Quét trên database chính: các thay đổi trước mốc since bị bỏ khỏi skip list nên lần quét phải thấy chúng,
+            // điều replica (có độ trễ) không bảo đảm.
+            TypeaheadIndex next = DataSourceRouting.primary(() -> transactionTemplate.execute(status -> {
+                TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+                try (Stream<UserRepositoryCustom.UserName> rows = userRepository.streamNames(fetchSize)) {
+                    rows.forEach(row -> builder.add(row.id(), row.fullName(), row.email()));
+                }
+
+                return builder.build();
+            }));
+            index = next;
+
+            changes.forEach((id, change) -> {
+                if (change.sequence() <= since) {
+                    changes.computeIfPresent(id, (key, current) -> {
+                        if (current.sequence() > since) {
+                            return current;
+                        }
+                        current.keys().forEach(pending::remove);
+                        return null;
+                    });
+                }
+            });
+            log.info("[Typeahead] Indexed {} users ({} entries, {} KB) in {} ms", next.size(), next.entries(),
+                    next.ramBytesUsed() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Dựng ở background: trong lúc chờ, các thay đổi mới vẫn được gợi ý từ skip list.
+        CompletableFuture.runAsync(this::rebuild, applicationTaskExecutor).exceptionally(e -> {
+            log.error("[Typeahead] Building the index failed", e);
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.typeahead.rebuild-interval:600000}",
+            initialDelayString = "${app.typeahead.rebuild-interval:600000}")
+    public void scheduledRebuild() {
+        if (!changes.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    // Chạy sau khi transaction phát sự kiện đã commit (hoặc ngay lập tức nếu không có transaction).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(final UserChangedEvent event) {
+        long seq = sequence.incrementAndGet();
+        List<String> keys = new ArrayList<>(2);
+        if (!event.isDeleted()) {
+            Set<String> texts = new LinkedHashSet<>(List.of(TypeaheadIndex.normalize(event.fullName()),
+                    TypeaheadIndex.normalize(event.email())));
+            texts.stream().filter(text -> !text.isEmpty())
+                    .forEach(text -> keys.add(text + KEY_SEPARATOR + event.id()));
+        }
+
+        changes.compute(event.id(), (id, previous) -> {
+            if (previous != null) {
+                previous.keys().forEach(pending::remove);
+            }
+            keys.forEach(key -> pending.put(key, id));
+
+            return new Change(seq, keys);
+        });
+    }
+
+    private record Change(long sequence, List<String> keys) {
+    }
+}
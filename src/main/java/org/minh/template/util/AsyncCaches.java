@@ -0,0 +1,54 @@
+package org.minh.template.util;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Đọc Caffeine cache và nạp khi miss mà không giữ lock trong lúc nạp.
+ * Cache đồng bộ (Cache.get, LoadingCache.get) chạy hàm nạp bên trong ConcurrentHashMap.compute, tức là trong một
+ * khối synchronized: nếu hàm nạp gọi Redis hoặc database, virtual thread bị ghim (pinned) vào carrier thread suốt
+ * thời gian chờ I/O (JDK 21-23). Ở đây lock chỉ được giữ để đặt một future chưa hoàn thành vào cache; thread gọi tự
+ * nạp giá trị bên ngoài lock rồi hoàn thành future, các thread khác cùng khóa chờ trên future (không bị ghim).
+ * Vẫn chỉ có một lần nạp cho mỗi khóa; khóa bị invalidate trong lúc nạp thì kết quả không được đưa lại vào cache.
+ */
+public final class AsyncCaches {
+    private AsyncCaches() {
+    }
+
+    /**
+     * Get the value for the key, loading it on the calling thread when absent. A null result is not cached.
+     *
+     * @param cache  AsyncCache
+     * @param key    K
+     * @param loader Function, called at most once per key at a time
+     * @param <K>    key type
+     * @param <V>    value type
+     * @return V or null
+     */
+    public static <K, V> V get(final AsyncCache<K, V> cache, final K key, final Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> load);
+        if (future == load) {
+            try {
+                load.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.minh.template.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter đơn giản cho chuỗi, an toàn khi nhiều thread cùng add/mightContain.
+ * Không bao giờ trả về false negative; xác suất false positive xấp xỉ fpp khi số phần tử không vượt quá expectedInsertions.
+ */
+public final class BloomFilter {
+    private static final long SEED_1 = 0xcbf29ce484222325L;
+
+    private static final long SEED_2 = 0x84222325cbf29ce4L;
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Create a Bloom filter sized for the expected insertions and false positive probability.
+     *
+     * @param expectedInsertions long
+     * @param fpp                double
+     */
+    public BloomFilter(final long expectedInsertions, final double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, (m + 63) / 64 * 64);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitSize / 64));
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value String
+     */
+    public void put(final String value) {
+        long h1 = hash(value, SEED_1);
+        long h2 = hash(value, SEED_2);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Check whether a value might have been added.
+     *
+     * @param value String
+     * @return false if the value was definitely never added
+     */
+    public boolean mightContain(final String value) {
+        long h1 = hash(value, SEED_1);
+        long h2 = hash(value, SEED_2);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Expected false positive probability for the current number of insertions.
+     *
+     * @return double
+     */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions.get() / bitSize), hashFunctions);
+    }
+
+    /**
+     * Number of values added.
+     *
+     * @return long
+     */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * FNV-1a trên các ký tự, sau đó trộn bằng finalizer của MurmurHash3 (fmix64).
+     */
+    private static long hash(final String value, final long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+}
@@ -3,7 +3,8 @@ package org.minh.template.util;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-import java.util.stream.Stream;
+import java.util.HashMap;
+import java.util.Map;
 
 public final class Constants {
     public static final String SECURITY_SCHEME_NAME = "bearerAuth";
@@ -26,13 +27,71 @@ public final class Constants {
         ADMIN("ADMIN"),
         USER("USER");
 
+        // Bảng tra theo name() và value, dựng một lần thay vì duyệt stream mỗi lần gọi get().
+        private static final Map<String, RoleEnum> LOOKUP = new HashMap<>();
+
+        static {
+            for (RoleEnum role : values()) {
+                LOOKUP.put(role.name(), role);
+                LOOKUP.put(role.getValue(), role);
+            }
+        }
+
         private final String value;
 
         public static RoleEnum get(final String name) {
-            return Stream.of(RoleEnum.values())
-                    .filter(p -> p.name().equals(name.toUpperCase()) || p.getValue().equals(name.toUpperCase()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException(String.format("Invalid role name: %s", name)));
+            RoleEnum role = LOOKUP.get(name);
+            if (role == null) {
+                role = LOOKUP.get(name.toUpperCase());
+            }
+            if (role == null) {
+                throw new IllegalArgumentException(String.format("Invalid role name: %s", name));
+            }
+
+            return role;
+        }
+    }
+
+    // Cách tính tổng số dòng khi phân trang offset: none (chỉ hasNext), estimated (ước lượng, có cache), exact (COUNT(*)).
+    @Getter
+    @AllArgsConstructor
+    public enum PageCountEnum {
+        NONE("none"),
+        ESTIMATED("estimated"),
+        EXACT("exact");
+
+        private final String value;
+
+        public static PageCountEnum get(final String name) {
+            for (PageCountEnum count : values()) {
+                if (count.value.equalsIgnoreCase(name)) {
+                    return count;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Invalid count mode: %s", name));
+        }
+    }
+
+    // Định dạng export danh sách: ndjson (mỗi dòng một object JSON) hoặc csv.
+    @Getter
+    @AllArgsConstructor
+    public enum ExportFormatEnum {
+        NDJSON("ndjson", "application/x-ndjson"),
+        CSV("csv", "text/csv");
+
+        private final String value;
+
+        private final String contentType;
+
+        public static ExportFormatEnum get(final String name) {
+            for (ExportFormatEnum format : values()) {
+                if (format.value.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Invalid export format: %s", name));
         }
     }
 
@@ -0,0 +1,58 @@
+package org.minh.template.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor của phân trang keyset: khóa sắp xếp và id của phần tử biên, kèm hướng sắp xếp và chiều duyệt.
+ * Được mã hóa Base64URL thành chuỗi "mờ" (opaque) để client chỉ việc gửi lại, không tự dựng.
+ *
+ * @param sortBy    String tên trường sắp xếp
+ * @param direction Sort.Direction hướng sắp xếp của danh sách
+ * @param backward  boolean true nếu cursor trỏ về trang trước (lấy các phần tử đứng trước phần tử biên)
+ * @param value     String giá trị khóa sắp xếp của phần tử biên
+ * @param id        UUID id của phần tử biên, dùng để phân định các phần tử trùng khóa sắp xếp
+ */
+public record KeysetCursor(String sortBy, Sort.Direction direction, boolean backward, String value, UUID id) {
+    private static final String SEPARATOR = "\n";
+
+    private static final int VERSION = 1;
+
+    /**
+     * Encode cursor to an opaque string.
+     *
+     * @return String
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, String.valueOf(VERSION), sortBy, direction.name(),
+                backward ? "b" : "f", id.toString(), value);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode an opaque cursor.
+     *
+     * @param cursor String
+     * @return KeysetCursor
+     * @throws IllegalArgumentException cursor is malformed
+     */
+    public static KeysetCursor decode(final String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Giá trị khóa sắp xếp nằm cuối cùng nên có thể chứa ký tự phân cách.
+            String[] parts = raw.split(SEPARATOR, 6);
+            if (parts.length != 6 || Integer.parseInt(parts[0]) != VERSION) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+
+            return new KeysetCursor(parts[1], Sort.Direction.valueOf(parts[2]), "b".equals(parts[3]), parts[5],
+                    UUID.fromString(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.minh.template.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Một trang của phân trang keyset: danh sách phần tử và cursor của trang sau / trang trước (null nếu không còn).
+ *
+ * @param content    List of T
+ * @param limit      int
+ * @param nextCursor String
+ * @param prevCursor String
+ */
+public record KeysetPage<T>(List<T> content, int limit, String nextCursor, String prevCursor) {
+    public <R> KeysetPage<R> map(final Function<? super T, ? extends R> converter) {
+        return new KeysetPage<>(content.stream().<R>map(converter).toList(), limit, nextCursor, prevCursor);
+    }
+}
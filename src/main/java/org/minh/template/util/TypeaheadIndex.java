@@ -0,0 +1,233 @@
+package org.minh.template.util;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefArray;
+import org.apache.lucene.util.BytesRefIterator;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.fst.BytesRefFSTEnum;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Index tiền tố chỉ đọc, nằm hoàn toàn trong bộ nhớ: chuỗi đã chuẩn hóa (bỏ dấu, chữ thường) -> id.
+ * Các chuỗi được nén thành một FST (Lucene) ánh xạ chuỗi -> vị trí đầu tiên của nó trong mảng ordinal; các user
+ * có cùng chuỗi nằm liền nhau từ vị trí đó. Mỗi chuỗi tốn 4 byte (ordinal) cộng phần FST, mỗi id 16 byte.
+ * Tìm top-K theo thứ tự từ điển của chuỗi, an toàn khi nhiều thread cùng đọc. Dựng bằng {@link Builder}.
+ */
+public final class TypeaheadIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("[\\u0300-\\u036f]");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s\\p{Cntrl}]+");
+
+    private static final byte KEY_SEPARATOR = 0;
+
+    public static final TypeaheadIndex EMPTY = new Builder().build();
+
+    private final FST<Long> fst;
+
+    private final int[] ordinals;
+
+    private final long[] ids;
+
+    private final int users;
+
+    private TypeaheadIndex(final FST<Long> fst, final int[] ordinals, final long[] ids, final int users) {
+        this.fst = fst;
+        this.ordinals = ordinals;
+        this.ids = ids;
+        this.users = users;
+    }
+
+    /**
+     * Normalize text the way it is indexed: diacritics removed (NFC and NFD input, đ -> d), lower case,
+     * whitespace collapsed.
+     *
+     * @param text String
+     * @return String normalized text, empty when text is null or blank
+     */
+    public static String normalize(final String text) {
+        if (text == null) {
+            return "";
+        }
+
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('đ', 'd').replace('Đ', 'd');
+
+        return SEPARATORS.matcher(folded.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Top-K entries starting with the prefix, in lexicographic order of the indexed text. A user matching with
+     * several texts is returned once, with the first one.
+     *
+     * @param prefix  String normalized prefix
+     * @param limit   int K
+     * @param exclude Predicate of UUID, ids to skip
+     * @return List of Hit
+     */
+    public List<Hit> search(final String prefix, final int limit, final Predicate<UUID> exclude) {
+        List<Hit> hits = new ArrayList<>(Math.min(limit, 64));
+        if (fst == null || prefix.isEmpty() || limit < 1) {
+            return hits;
+        }
+
+        BytesRef target = new BytesRef(prefix);
+        Set<UUID> seen = new HashSet<>();
+        try {
+            BytesRefFSTEnum<Long> fstEnum = new BytesRefFSTEnum<>(fst);
+            BytesRefFSTEnum.InputOutput<Long> current = fstEnum.seekCeil(target);
+            while (current != null && StringHelper.startsWith(current.input, target) && hits.size() < limit) {
+                String text = current.input.utf8ToString();
+                int start = current.output.intValue();
+                current = fstEnum.next();
+                int end = current == null ? ordinals.length : current.output.intValue();
+                for (int position = start; position < end && hits.size() < limit; position++) {
+                    int ordinal = ordinals[position];
+                    UUID id = new UUID(ids[2 * ordinal], ids[2 * ordinal + 1]);
+                    if (!exclude.test(id) && seen.add(id)) {
+                        hits.add(new Hit(id, text));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // FST nằm trên heap, không có I/O thật
+            throw new UncheckedIOException(e);
+        }
+
+        return hits;
+    }
+
+    /**
+     * @return int number of indexed users
+     */
+    public int size() {
+        return users;
+    }
+
+    /**
+     * @return int number of indexed (text, user) entries
+     */
+    public int entries() {
+        return ordinals.length;
+    }
+
+    /**
+     * @return long approximate heap used by the FST, ordinals and ids
+     */
+    public long ramBytesUsed() {
+        return (fst == null ? 0 : fst.ramBytesUsed()) + 4L * ordinals.length + 8L * ids.length;
+    }
+
+    /**
+     * Một kết quả gợi ý.
+     *
+     * @param id   UUID của user
+     * @param text chuỗi đã chuẩn hóa khớp với tiền tố
+     */
+    public record Hit(UUID id, String text) {
+    }
+
+    /**
+     * Gom các chuỗi của từng user rồi sắp xếp và nén thành FST. Dữ liệu tạm dùng khi dựng nằm trong các khối byte
+     * liền nhau (BytesRefArray), không tạo một object cho mỗi chuỗi. Không an toàn khi nhiều thread cùng add.
+     */
+    public static final class Builder {
+        private final BytesRefArray keys = new BytesRefArray(Counter.newCounter());
+
+        private long[] ids = new long[0];
+
+        private int users;
+
+        /**
+         * Add a user with the texts it can be found by. Texts are normalized; blank texts are skipped.
+         *
+         * @param id    UUID
+         * @param texts String...
+         * @return Builder
+         */
+        public Builder add(final UUID id, final String... texts) {
+            int ordinal = users++;
+            ids = ArrayUtil.grow(ids, 2 * users);
+            ids[2 * ordinal] = id.getMostSignificantBits();
+            ids[2 * ordinal + 1] = id.getLeastSignificantBits();
+
+            for (String text : texts) {
+                String normalized = normalize(text);
+                if (normalized.isEmpty()) {
+                    continue;
+                }
+
+                // Khóa tạm: chuỗi + 0x00 + ordinal (4 byte), để sắp xếp xong vẫn biết chuỗi thuộc user nào.
+                byte[] bytes = normalized.getBytes(StandardCharsets.UTF_8);
+                byte[] key = new byte[bytes.length + 5];
+                System.arraycopy(bytes, 0, key, 0, bytes.length);
+                key[bytes.length] = KEY_SEPARATOR;
+                key[bytes.length + 1] = (byte) (ordinal >>> 24);
+                key[bytes.length + 2] = (byte) (ordinal >>> 16);
+                key[bytes.length + 3] = (byte) (ordinal >>> 8);
+                key[bytes.length + 4] = (byte) ordinal;
+                keys.append(new BytesRef(key));
+            }
+
+            return this;
+        }
+
+        /**
+         * Sort the entries and compile the FST.
+         *
+         * @return TypeaheadIndex
+         */
+        public TypeaheadIndex build() {
+            int[] ordinals = new int[keys.size()];
+            if (ordinals.length == 0) {
+                return new TypeaheadIndex(null, ordinals, ids, users);
+            }
+
+            try {
+                FSTCompiler<Long> compiler = new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1,
+                        PositiveIntOutputs.getSingleton()).build();
+                IntsRefBuilder scratch = new IntsRefBuilder();
+                BytesRef previous = null;
+                BytesRefIterator iterator = keys.iterator(Comparator.naturalOrder());
+                int position = 0;
+                for (BytesRef key = iterator.next(); key != null; key = iterator.next(), position++) {
+                    int length = key.length - 5;
+                    int offset = key.offset + length + 1;
+                    ordinals[position] = (key.bytes[offset] & 0xFF) << 24 | (key.bytes[offset + 1] & 0xFF) << 16
+                            | (key.bytes[offset + 2] & 0xFF) << 8 | key.bytes[offset + 3] & 0xFF;
+
+                    BytesRef text = new BytesRef(key.bytes, key.offset, length);
+                    if (previous == null || !previous.bytesEquals(text)) {
+                        // Chuỗi mới: ghi vào FST kèm vị trí đầu tiên của nó; các bản trùng chỉ thêm ordinal.
+                        compiler.add(Util.toIntsRef(text, scratch), (long) position);
+                        previous = BytesRef.deepCopyOf(text);
+                    }
+                }
+                keys.clear();
+
+                return new TypeaheadIndex(FST.fromFSTReader(compiler.compile(), compiler.getFSTReader()),
+                        ordinals, ArrayUtil.copyOfSubArray(ids, 0, 2 * users), users);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
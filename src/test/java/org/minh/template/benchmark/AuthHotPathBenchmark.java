@@ -0,0 +1,90 @@
+package org.minh.template.benchmark;
+
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.security.JwtTokenProvider;
+import org.minh.template.security.JwtUserDetails;
+import org.minh.template.security.ParsedToken;
+import org.minh.template.security.TokenPolicy;
+import org.minh.template.util.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Các hot path của luồng xác thực, chạy trên mỗi request hoặc mỗi lần login:
+ * phát hành và xác thực JWT, dựng JwtUserDetails (từ entity và từ claim) và tra RoleEnum theo tên.
+ * Phần tra cứu Redis được thay bằng stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthHotPathBenchmark {
+    private JwtTokenProvider jwtTokenProvider;
+
+    private TokenPolicy policy;
+
+    private User user;
+
+    private String userId;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtTokenProvider = new JwtTokenProvider(JwtValidationBenchmark.SECRET, 3_600_000L, 86_400_000L,
+                604_800_000L, "session", null, new StubJwtTokenService(), null, null);
+        policy = jwtTokenProvider.getTokenPolicy(false);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setRole(new Role(Constants.RoleEnum.USER));
+        userId = user.getId().toString();
+        token = jwtTokenProvider.generateJwt(userId, user.getEmail(), "USER", policy);
+    }
+
+    @Benchmark
+    public String generateJwt() {
+        return jwtTokenProvider.generateJwt(userId, "user@example.com", "USER", policy);
+    }
+
+    @Benchmark
+    public String generateRefresh() {
+        return jwtTokenProvider.generateRefresh(userId, "user@example.com", "USER", token, policy);
+    }
+
+    @Benchmark
+    public ParsedToken validate() {
+        return jwtTokenProvider.verifyToken(token);
+    }
+
+    @Benchmark
+    public JwtUserDetails userDetailsFromUser() {
+        return JwtUserDetails.create(user);
+    }
+
+    @Benchmark
+    public JwtUserDetails userDetailsFromClaims() {
+        return JwtUserDetails.create(userId, "user@example.com", "USER");
+    }
+
+    @Benchmark
+    public Constants.RoleEnum roleEnumGet() {
+        return Constants.RoleEnum.get("admin");
+    }
+}
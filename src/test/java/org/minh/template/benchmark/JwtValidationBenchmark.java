@@ -0,0 +1,75 @@
+package org.minh.template.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.minh.template.security.JwtTokenProvider;
+import org.minh.template.security.ParsedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí xác thực JWT cho mỗi request:
+ * - legacy: mỗi lần parse tạo lại Key + parser, token bị parse 3 lần (validateToken, isTokenExpired, getUserIdFromToken).
+ * - parseOnce: khóa và parser tạo một lần, token được parse đúng một lần qua JwtTokenProvider.verifyToken.
+ * Phần tra cứu Redis được thay bằng stub để chỉ đo phần CPU của JWT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+    static final String SECRET = "c04nKbDFfJ2v0XSRtNKHQQq5Km3zMSZxla7paMSUzBOI/ORhgnTC7eJrqqEZQGKm";
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 86_400_000L, 604_800_000L, "session",
+                null, new StubJwtTokenService(), null, null);
+        token = jwtTokenProvider.generateJwt(UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public String legacy() {
+        // validateToken: parse + kiểm tra hết hạn (parse lần 2)
+        legacyParse(token);
+        boolean expired = legacyParse(token).getExpiration().before(new Date());
+        if (expired) {
+            return null;
+        }
+        // getUserIdFromToken: parse lần 3
+        return legacyParse(token).getSubject();
+    }
+
+    @Benchmark
+    public String parseOnce() {
+        ParsedToken parsedToken = jwtTokenProvider.verifyToken(token);
+
+        return parsedToken.getSubject();
+    }
+
+    private static Claims legacyParse(final String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
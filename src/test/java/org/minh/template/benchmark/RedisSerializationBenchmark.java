@@ -0,0 +1,127 @@
+package org.minh.template.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.minh.template.config.redis.JsonCodec;
+import org.minh.template.config.redis.JwtTokenBinaryCodec;
+import org.minh.template.config.redis.JwtTokenRedisSerializer;
+import org.minh.template.config.redis.RedisCodec;
+import org.minh.template.config.redis.SerializationFormat;
+import org.minh.template.config.redis.VersionedRedisSerializer;
+import org.minh.template.entity.JwtToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh kích thước (byte/entry, in ra khi setup) và thời gian encode/decode một phiên đăng nhập:
+ * - jdk: JDK serialization (mặc định cũ của RedisTemplate) trên LinkedHashMap chứa cùng các trường
+ *   (JwtToken không Serializable nên đây là cách tương đương gần nhất).
+ * - json: JSON của JwtTokenRedisSerializer bọc trong envelope.
+ * - binary: JwtTokenBinaryCodec bọc trong envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializationBenchmark {
+    private JwtToken jwtToken;
+
+    private Map<String, Object> jdkEntry;
+
+    private RedisSerializer<Object> jdk;
+
+    private RedisSerializer<JwtToken> json;
+
+    private RedisSerializer<JwtToken> binary;
+
+    private byte[] jdkBytes;
+
+    private byte[] jsonBytes;
+
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() {
+        jwtToken = JwtToken.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .token("eyJhbGciOiJIUzI1NiJ9." + "a".repeat(180) + ".signature-signature-signature-sig")
+                .refreshToken("eyJhbGciOiJIUzI1NiJ9." + "b".repeat(220) + ".signature-signature-signature-sig")
+                .rememberMe(false)
+                .ipAddress("203.113.152.10")
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/126.0 Safari/537.36")
+                .issuedAt(System.currentTimeMillis())
+                .tokenTimeToLive(86_400_000L)
+                .build();
+
+        jdkEntry = new LinkedHashMap<>();
+        jdkEntry.put("id", jwtToken.getId());
+        jdkEntry.put("userId", jwtToken.getUserId());
+        jdkEntry.put("token", jwtToken.getToken());
+        jdkEntry.put("refreshToken", jwtToken.getRefreshToken());
+        jdkEntry.put("rememberMe", jwtToken.getRememberMe());
+        jdkEntry.put("ipAddress", jwtToken.getIpAddress());
+        jdkEntry.put("userAgent", jwtToken.getUserAgent());
+        jdkEntry.put("issuedAt", jwtToken.getIssuedAt());
+        jdkEntry.put("expiresAt", System.currentTimeMillis() + jwtToken.getTokenTimeToLive());
+
+        JwtTokenRedisSerializer jsonSerializer = new JwtTokenRedisSerializer(new ObjectMapper());
+        List<RedisCodec<? extends JwtToken>> codecs = List.of(
+                new JwtTokenBinaryCodec(), new JsonCodec<>(jsonSerializer, JwtToken.class::isInstance));
+        jdk = RedisSerializer.java();
+        json = new VersionedRedisSerializer<>(SerializationFormat.JSON, codecs, jsonSerializer);
+        binary = new VersionedRedisSerializer<>(SerializationFormat.BINARY, codecs, jsonSerializer);
+
+        jdkBytes = jdk.serialize(jdkEntry);
+        jsonBytes = json.serialize(jwtToken);
+        binaryBytes = binary.serialize(jwtToken);
+        System.out.printf("%nbytes/entry: jdk=%d json=%d binary=%d%n", jdkBytes.length, jsonBytes.length,
+                binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jdkEncode() {
+        return jdk.serialize(jdkEntry);
+    }
+
+    @Benchmark
+    public Object jdkDecode() {
+        return jdk.deserialize(jdkBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(jwtToken);
+    }
+
+    @Benchmark
+    public JwtToken jsonDecode() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binary.serialize(jwtToken);
+    }
+
+    @Benchmark
+    public JwtToken binaryDecode() {
+        return binary.deserialize(binaryBytes);
+    }
+}
@@ -0,0 +1,116 @@
+package org.minh.template.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.minh.template.dto.response.SingleResponse;
+import org.minh.template.dto.response.error.ErrorResponse;
+import org.minh.template.dto.response.user.UserResponse;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.exception.AppExceptionHandler;
+import org.minh.template.util.Constants;
+import org.minh.template.util.CreatePageHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.FieldError;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Các hot path khi dựng response: UserResponse.convert, serialize SingleResponse bằng Jackson (cấu hình như Spring MVC),
+ * CreatePageHelper.createPageable và dựng response lỗi trong AppExceptionHandler.
+ * Log của AppExceptionHandler bị tắt để chỉ đo phần dựng response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseHotPathBenchmark {
+    private User user;
+
+    private ObjectMapper objectMapper;
+
+    private SingleResponse<UserResponse> singleResponse;
+
+    private AppExceptionHandler appExceptionHandler;
+
+    private BadCredentialsException badCredentialsException;
+
+    private BindException bindException;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger(AppExceptionHandler.class)).setLevel(Level.OFF);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        user.setName("John");
+        user.setLastName("DOE");
+        user.setGender("MALE");
+        user.setPhoneNumber("0901234567");
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setRole(new Role(Constants.RoleEnum.USER));
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        singleResponse = new SingleResponse<>(200, "OK", UserResponse.convert(user));
+
+        appExceptionHandler = new AppExceptionHandler();
+        badCredentialsException = new BadCredentialsException("Bad credentials");
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "request");
+        bindingResult.addError(new FieldError("request", "email", "must be a well-formed email address"));
+        bindingResult.addError(new FieldError("request", "password", "must not be blank"));
+        bindException = new BindException(bindingResult);
+    }
+
+    @Benchmark
+    public UserResponse userResponseConvert() {
+        return UserResponse.convert(user);
+    }
+
+    @Benchmark
+    public byte[] singleResponseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(singleResponse);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new SingleResponse<>(200, "OK", UserResponse.convert(user)));
+    }
+
+    @Benchmark
+    public Pageable createPageable() {
+        return CreatePageHelper.createPageable(2, 20, null, "asc", "createdAt");
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> errorResponse() {
+        return appExceptionHandler.handleBadCredentialsException(badCredentialsException);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> validationErrorResponse() {
+        return appExceptionHandler.handleBindException(bindException);
+    }
+}
@@ -0,0 +1,46 @@
+package org.minh.template.benchmark;
+
+import org.minh.template.entity.JwtToken;
+import org.minh.template.service.auth.JwtTokenService;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JwtTokenService giả cho benchmark: mọi token đều "tồn tại" trong Redis, để chỉ đo phần CPU của JWT.
+ */
+class StubJwtTokenService implements JwtTokenService {
+    @Override
+    public JwtToken findByUserIdAndRefreshToken(final UUID id, final String refreshToken) {
+        return JwtToken.builder().build();
+    }
+
+    @Override
+    public JwtToken findByTokenOrRefreshToken(final String token) {
+        return JwtToken.builder().build();
+    }
+
+    @Override
+    public List<JwtToken> findAllByUserId(final UUID userId) {
+        return List.of();
+    }
+
+    @Override
+    public List<JwtToken> save(final JwtToken jwtToken) {
+        return List.of();
+    }
+
+    @Override
+    public List<JwtToken> deleteAllByUserId(final UUID userId) {
+        return List.of();
+    }
+
+    @Override
+    public void delete(final JwtToken jwtToken) {
+    }
+
+    @Override
+    public JwtToken rotate(final String refreshToken, final String accessTokenDigest, final JwtToken jwtToken) {
+        return jwtToken;
+    }
+}
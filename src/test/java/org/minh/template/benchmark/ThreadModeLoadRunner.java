@@ -0,0 +1,143 @@
+package org.minh.template.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Tải thử /account/me và /auth/login trên một server đang chạy, để so sánh platform thread với virtual thread
+ * (spring.threads.virtual.enabled). Mỗi client là một thread gửi request liên tục trong khoảng thời gian cho trước;
+ * in ra throughput, p50/p95/p99/max và số response theo status (503 = hàng đợi BCrypt đầy).
+ * /account/me chạy trước với token lấy từ một lần đăng nhập, vì mỗi lần đăng nhập tạo phiên mới và phiên cũ nhất bị
+ * loại khi vượt app.jwt.session.max-per-user. Không phải JMH benchmark: chạy bằng make load-test (cần tài khoản có sẵn).
+ * Tham số (system property): load.base-url, load.email, load.password, load.concurrency, load.duration (giây),
+ * load.label.
+ */
+public final class ThreadModeLoadRunner {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ThreadModeLoadRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.base-url", "http://localhost:8080");
+        String email = System.getProperty("load.email", "admin@example.com");
+        String password = System.getProperty("load.password", "P@sswd123.");
+        int concurrency = Integer.getInteger("load.concurrency", 200);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        String label = System.getProperty("load.label", "server");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String body = OBJECT_MAPPER.writeValueAsString(Map.of("email", email, "password", password));
+        Supplier<HttpRequest> login = () -> HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response = client.send(login.get(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode() + ": "
+                    + response.body());
+        }
+        JsonNode token = OBJECT_MAPPER.readTree(response.body()).path("data").path("accessToken");
+        HttpRequest me = HttpRequest.newBuilder(URI.create(baseUrl + "/account/me"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token.asText())
+                .GET()
+                .build();
+
+        System.out.printf("[%s] %d clients, %d s per endpoint%n", label, concurrency, duration.toSeconds());
+        run(label, "GET /account/me", client, () -> me, concurrency, duration);
+        run(label, "POST /auth/login", client, login, concurrency, duration);
+    }
+
+    private static void run(final String label, final String name, final HttpClient client,
+                            final Supplier<HttpRequest> request, final int concurrency, final Duration duration)
+            throws Exception {
+        // Khởi động (JIT, pool kết nối) trước khi đo
+        drive(client, request, concurrency, Duration.ofSeconds(Math.min(5, duration.toSeconds())));
+        Result result = drive(client, request, concurrency, duration);
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("[%s] %-18s %8.1f req/s  p50 %6.1f ms  p95 %6.1f ms  p99 %6.1f ms  max %7.1f ms  %s%n",
+                label, name, latencies.length / (double) duration.toSeconds(), percentile(latencies, 0.50),
+                percentile(latencies, 0.95), percentile(latencies, 0.99), percentile(latencies, 1.0),
+                result.statuses());
+    }
+
+    private static Result drive(final HttpClient client, final Supplier<HttpRequest> request, final int concurrency,
+                                final Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    Map<String, Integer> statuses = new TreeMap<>();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        String status;
+                        try {
+                            status = String.valueOf(client.send(request.get(),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode());
+                        } catch (IOException e) {
+                            status = e.getClass().getSimpleName();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, 2 * count);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                        statuses.merge(status, 1, Integer::sum);
+                    }
+
+                    return new Result(Arrays.copyOf(latencies, count), statuses);
+                }));
+            }
+
+            long[] latencies = new long[0];
+            Map<String, Integer> statuses = new TreeMap<>();
+            for (Future<Result> worker : workers) {
+                Result result = worker.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + result.latencies().length);
+                System.arraycopy(result.latencies(), 0, latencies, offset, result.latencies().length);
+                result.statuses().forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+            }
+
+            return new Result(latencies, statuses);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double percentile(final long[] sorted, final double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private record Result(long[] latencies, Map<String, Integer> statuses) {
+    }
+}
@@ -0,0 +1,82 @@
+package org.minh.template.benchmark;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.minh.template.security.Hs256TokenMinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí phát hành một token (sub, iat, exp, jti, email, role):
+ * - jjwtNewKey: cách cũ của generateTokenByUserId, tạo Key mới và đi qua JwtBuilder cho mỗi token.
+ * - jjwtSharedKey: JwtBuilder với khóa tạo sẵn.
+ * - minter: Hs256TokenMinter (header mã hóa sẵn, buffer và Mac theo thread).
+ * Chạy với "-prof gc" để xem gc.alloc.rate.norm (byte cấp phát cho mỗi token).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenMintingBenchmark {
+    private static final long EXPIRES_IN = 3_600_000L;
+
+    private Key key;
+
+    private Hs256TokenMinter minter;
+
+    private String subject;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(JwtValidationBenchmark.SECRET.getBytes());
+        minter = new Hs256TokenMinter(key.getEncoded());
+        subject = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String jjwtNewKey() {
+        return jjwt(Keys.hmacShaKeyFor(JwtValidationBenchmark.SECRET.getBytes()));
+    }
+
+    @Benchmark
+    public String jjwtSharedKey() {
+        return jjwt(key);
+    }
+
+    @Benchmark
+    public String minter() {
+        return minter.mint(UUID.randomUUID(), subject, "user@example.com", "USER", System.currentTimeMillis(),
+                EXPIRES_IN, null, null);
+    }
+
+    private String jjwt(final Key signingKey) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(subject)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + EXPIRES_IN))
+                .claim("email", "user@example.com")
+                .claim("role", "USER")
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,155 @@
+package org.minh.template.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh phân trang offset và keyset trên bảng users (H2 in-memory, 250.000 dòng, index (created_at, id)),
+ * với đúng dạng câu SQL mà Hibernate sinh ra (tắt OPTIMIZE_REUSE_RESULTS để H2 không trả lại kết quả cũ):
+ * - offset: ORDER BY ... LIMIT 20 OFFSET (page - 1) * 20, cộng thêm COUNT(*) để tính total như Page.
+ * - keyset: WHERE (created_at, id) > (?, ?) ORDER BY ... LIMIT 21, cursor của trang được tính sẵn khi setup.
+ * Thời gian của offset tăng tuyến tính theo số trang, keyset gần như không đổi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPaginationBenchmark {
+    private static final int ROWS = 250_000;
+
+    private static final int LIMIT = 20;
+
+    private static final String COLUMNS = "id, email, name, last_name, created_at";
+
+    @Param({"1", "1000", "10000"})
+    private int page;
+
+    private Connection connection;
+
+    private PreparedStatement offsetQuery;
+
+    private PreparedStatement countQuery;
+
+    private PreparedStatement keysetQuery;
+
+    private PreparedStatement firstPageQuery;
+
+    private Timestamp cursorCreatedAt;
+
+    private UUID cursorId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pagination;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (id UUID PRIMARY KEY, email VARCHAR(255) NOT NULL, "
+                    + "name VARCHAR(50), last_name VARCHAR(50), created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE INDEX idx_users_created_at_id ON users (created_at, id)");
+        }
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, "user" + i + "@example.com");
+                insert.setString(3, "Name" + i);
+                insert.setString(4, "DOE");
+                // Cứ 10 user có chung một created_at để phần phân định bằng id có tác dụng.
+                insert.setTimestamp(5, Timestamp.valueOf(start.plusSeconds(i / 10)));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        String order = " ORDER BY created_at, id";
+        offsetQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM users" + order + " LIMIT ? OFFSET ?");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM users");
+        keysetQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM users WHERE (created_at, id) > (?, ?)"
+                + order + " LIMIT ?");
+        firstPageQuery = connection.prepareStatement("SELECT " + COLUMNS + " FROM users" + order + " LIMIT ?");
+
+        // Cursor của trang cần đo = dòng cuối của trang trước đó.
+        if (page > 1) {
+            offsetQuery.setInt(1, 1);
+            offsetQuery.setInt(2, (page - 1) * LIMIT - 1);
+            try (ResultSet resultSet = offsetQuery.executeQuery()) {
+                resultSet.next();
+                cursorId = resultSet.getObject(1, UUID.class);
+                cursorCreatedAt = resultSet.getTimestamp(5);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE users");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long offset() throws SQLException {
+        offsetQuery.setInt(1, LIMIT);
+        offsetQuery.setInt(2, (page - 1) * LIMIT);
+        long checksum = consume(offsetQuery);
+        try (ResultSet resultSet = countQuery.executeQuery()) {
+            resultSet.next();
+            checksum += resultSet.getLong(1);
+        }
+
+        return checksum;
+    }
+
+    @Benchmark
+    public long keyset() throws SQLException {
+        if (cursorId == null) {
+            firstPageQuery.setInt(1, LIMIT + 1);
+            return consume(firstPageQuery);
+        }
+        keysetQuery.setTimestamp(1, cursorCreatedAt);
+        keysetQuery.setObject(2, cursorId);
+        keysetQuery.setInt(3, LIMIT + 1);
+
+        return consume(keysetQuery);
+    }
+
+    private static long consume(final PreparedStatement query) throws SQLException {
+        long checksum = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                checksum += resultSet.getString(2).length();
+            }
+        }
+
+        return checksum;
+    }
+}
@@ -0,0 +1,174 @@
+package org.minh.template.config.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.security.JwtUserDetails;
+import org.minh.template.util.Constants;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tách đọc/ghi trên ba database H2 trong bộ nhớ (chính + 2 replica), mỗi database trả về tên của chính nó:
+ * transaction read-only xoay vòng qua các replica, user vừa ghi đọc lại từ database chính trong khoảng
+ * read-your-writes, replica hỏng bị bỏ qua cho tới khi kiểm tra sức khỏe thấy nó hoạt động lại, replica chỉ bận hết
+ * kết nối thì không bị loại.
+ */
+class ReadWriteRoutingTest {
+    private final String id = UUID.randomUUID().toString();
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica1;
+
+    private HikariDataSource replica2;
+
+    private ReplicaDataSource replicaDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica1 = database("replica-1");
+        replica2 = database("replica-2");
+
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMillis(300), 100);
+        // Không chạy kiểm tra sức khỏe nền (interval 0), test gọi checkHealth trực tiếp.
+        replicaDataSource = new ReplicaDataSource(primary, List.of(replica1, replica2), tracker, "select 0", 1000, 0,
+                new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(tracker);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaDataSource.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsAreBalancedAcrossReplicas() {
+        assertThat(List.of(readOnlyNode(), readOnlyNode(), readOnlyNode(), readOnlyNode()))
+                .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+        String written = readWrite.execute(status -> node());
+        assertThat(written).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");
+        assertThat(DataSourceRouting.primary(this::readOnlyNode)).isEqualTo("primary");
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimaryWithinWindow() throws InterruptedException {
+        authenticate("writer");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update node set name = name"));
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        authenticate("reader");
+        assertThat(readOnlyNode()).startsWith("replica-");
+
+        authenticate("writer");
+        readOnly.executeWithoutResult(status -> node());
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        Thread.sleep(500);
+        assertThat(readOnlyNode()).startsWith("replica-");
+    }
+
+    @Test
+    void unhealthyReplicasAreSkippedUntilTheyRecover() {
+        shutdown("replica-1", replica1);
+        for (int i = 0; i < 4; i++) {
+            assertThat(readOnlyNode()).isEqualTo("replica-2");
+        }
+
+        shutdown("replica-2", replica2);
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        create("replica-1");
+        replicaDataSource.checkHealth();
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+        assertThat(readOnlyNode()).isEqualTo("replica-1");
+    }
+
+    @Test
+    void busyReplicaIsSkippedWithoutBeingDisabled() throws SQLException {
+        // Giữ hết 2 kết nối của pool replica-1: lấy kết nối hết thời gian chờ nhưng database vẫn hoạt động.
+        try (Connection first = replica1.getConnection(); Connection second = replica1.getConnection()) {
+            assertThat(readOnlyNode()).isEqualTo("replica-2");
+            assertThat(readOnlyNode()).isEqualTo("replica-2");
+        }
+
+        assertThat(List.of(readOnlyNode(), readOnlyNode())).containsExactly("replica-1", "replica-2");
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private void authenticate(final String user) {
+        JwtUserDetails principal = JwtUserDetails.create(user, user + "@example.com",
+                Constants.RoleEnum.USER.name());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private HikariDataSource database(final String name) {
+        create(name);
+        // IFEXISTS: sau khi database bị tắt, kết nối mới thất bại thay vì tạo database rỗng
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url(name) + ";IFEXISTS=TRUE");
+        config.setPoolName(name);
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(250);
+
+        return new HikariDataSource(config);
+    }
+
+    private void create(final String name) {
+        JdbcTemplate template = new JdbcTemplate(new DriverManagerDataSource(url(name)));
+        template.execute("create table node (name varchar(32))");
+        template.update("insert into node (name) values (?)", name);
+    }
+
+    // Tắt database và bỏ các kết nối đang rảnh trong pool, như khi Hikari phát hiện kết nối đã hỏng
+    private void shutdown(final String name, final HikariDataSource dataSource) {
+        new JdbcTemplate(new DriverManagerDataSource(url(name))).execute("shutdown");
+        dataSource.getHikariPoolMXBean().softEvictConnections();
+    }
+
+    private String url(final String name) {
+        return "jdbc:h2:mem:" + name + "-" + id + ";DB_CLOSE_DELAY=-1";
+    }
+}
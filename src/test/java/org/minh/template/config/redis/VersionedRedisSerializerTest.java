@@ -0,0 +1,90 @@
+package org.minh.template.config.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.JwtToken;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Đọc/ghi qua envelope và đọc được giá trị cũ (JSON không envelope) để đổi định dạng mà không phải xóa Redis.
+ */
+class VersionedRedisSerializerTest {
+    private final JwtTokenRedisSerializer json = new JwtTokenRedisSerializer(new ObjectMapper());
+
+    @Test
+    void binaryRoundTrip() {
+        JwtToken jwtToken = session();
+        RedisSerializer<JwtToken> serializer = serializer(SerializationFormat.BINARY);
+
+        byte[] bytes = serializer.serialize(jwtToken);
+
+        assertThat(bytes[0]).isEqualTo(VersionedRedisSerializer.MAGIC);
+        assertThat(bytes[1]).isEqualTo(JwtTokenBinaryCodec.ID);
+        assertThat(bytes.length).isLessThan(json.serialize(jwtToken).length);
+        assertSameSession(serializer.deserialize(bytes), jwtToken);
+    }
+
+    @Test
+    void everyFormatIsReadableByEveryWriter() {
+        JwtToken jwtToken = session();
+        for (SerializationFormat writer : SerializationFormat.values()) {
+            byte[] bytes = serializer(writer).serialize(jwtToken);
+            for (SerializationFormat reader : SerializationFormat.values()) {
+                assertSameSession(serializer(reader).deserialize(bytes), jwtToken);
+            }
+        }
+    }
+
+    @Test
+    void nullFieldsStayNull() {
+        JwtToken jwtToken = JwtToken.builder().token("token").build();
+        RedisSerializer<JwtToken> serializer = serializer(SerializationFormat.BINARY);
+
+        JwtToken read = serializer.deserialize(serializer.serialize(jwtToken));
+
+        assertThat(read.getToken()).isEqualTo("token");
+        assertThat(read.getId()).isNull();
+        assertThat(read.getRememberMe()).isNull();
+        assertThat(read.getTokenTimeToLive()).isNull();
+    }
+
+    @Test
+    void unknownCodecIsRejected() {
+        byte[] bytes = {VersionedRedisSerializer.MAGIC, 42, 0};
+
+        assertThatThrownBy(() -> serializer(SerializationFormat.BINARY).deserialize(bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private RedisSerializer<JwtToken> serializer(final SerializationFormat format) {
+        return new VersionedRedisSerializer<>(format,
+                List.of(new JwtTokenBinaryCodec(), new JsonCodec<>(json, JwtToken.class::isInstance)), json);
+    }
+
+    private static JwtToken session() {
+        return JwtToken.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .token("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIxIn0.signature")
+                .refreshToken("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIyIn0.signature")
+                .rememberMe(false)
+                .ipAddress("127.0.0.1")
+                .userAgent("Mozilla/5.0 (Tiếng Việt)")
+                .issuedAt(System.currentTimeMillis())
+                .tokenTimeToLive(60_000L)
+                .build();
+    }
+
+    private static void assertSameSession(final JwtToken actual, final JwtToken expected) {
+        assertThat(actual).usingRecursiveComparison().ignoringFields("tokenTimeToLive").isEqualTo(expected);
+        assertThat(actual.getTokenTimeToLive()).isBetween(expected.getTokenTimeToLive() - 5_000,
+                expected.getTokenTimeToLive());
+    }
+}
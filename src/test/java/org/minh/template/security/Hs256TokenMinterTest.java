@@ -0,0 +1,118 @@
+package org.minh.template.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token do Hs256TokenMinter phát hành phải được parser chuẩn của jjwt chấp nhận và đọc ra đúng các claim.
+ */
+class Hs256TokenMinterTest {
+    private static final Key KEY = Keys.hmacShaKeyFor(
+            "c04nKbDFfJ2v0XSRtNKHQQq5Km3zMSZxla7paMSUzBOI/ORhgnTC7eJrqqEZQGKm".getBytes());
+
+    private final Hs256TokenMinter minter = new Hs256TokenMinter(KEY.getEncoded());
+
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(KEY).build();
+
+    @Test
+    void mintedTokenIsAcceptedByJjwt() {
+        UUID jti = UUID.randomUUID();
+        String subject = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+
+        String token = minter.mint(jti, subject, "user@example.com", "USER", now, 3_600_000L, "digest", true);
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        assertThat(claims.getId()).isEqualTo(jti.toString());
+        assertThat(claims.getSubject()).isEqualTo(subject);
+        assertThat(claims.getIssuedAt()).isEqualTo(new Date(now / 1000 * 1000));
+        assertThat(claims.getExpiration()).isEqualTo(new Date((now + 3_600_000L) / 1000 * 1000));
+        assertThat(claims.get("email")).isEqualTo("user@example.com");
+        assertThat(claims.get("role")).isEqualTo("USER");
+        assertThat(claims.get("atd")).isEqualTo("digest");
+        assertThat(claims.get("rme")).isEqualTo(true);
+    }
+
+    @Test
+    void optionalClaimsAreOmitted() {
+        String token = minter.mint(UUID.randomUUID(), "id", "user@example.com", null, 0L, 60_000L, null, null);
+        Claims claims = Jwts.parserBuilder().setSigningKey(KEY).setAllowedClockSkewSeconds(Long.MAX_VALUE / 1000)
+                .build().parseClaimsJws(token).getBody();
+
+        assertThat(claims).containsOnlyKeys("jti", "sub", "iat", "exp");
+    }
+
+    @Test
+    void stringsAreEscaped() {
+        String email = "\"quoted\"\\back\nslash\u0001@ví-dụ.vn \uD83D\uDE00";
+
+        String token = minter.mint(UUID.randomUUID(), "id", email, "ADMIN", System.currentTimeMillis(), 60_000L,
+                null, false);
+
+        assertThat(parser.parseClaimsJws(token).getBody().get("email")).isEqualTo(email);
+    }
+
+    @Test
+    void headerAndSignatureMatchStandardEncoding() throws Exception {
+        String token = minter.mint(UUID.randomUUID(), "id", null, null, System.currentTimeMillis(), 60_000L,
+                null, null);
+        String jjwtToken = Jwts.builder().setSubject("id").signWith(KEY, SignatureAlgorithm.HS256).compact();
+        String[] parts = token.split("\\.");
+
+        // Header giống hệt header do JwtBuilder tạo.
+        assertThat(parts[0]).isEqualTo(jjwtToken.substring(0, jjwtToken.indexOf('.')));
+        // Chữ ký là HMAC-SHA256 chuẩn trên "header.payload", mã hóa Base64URL không padding.
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY.getEncoded(), "HmacSHA256"));
+        byte[] expected = mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+        assertThat(parts[2]).isEqualTo(Base64.getUrlEncoder().withoutPadding().encodeToString(expected));
+    }
+
+    @Test
+    void concurrentMintingProducesValidTokens() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                int valid = 0;
+                for (int j = 0; j < 500; j++) {
+                    String subject = UUID.randomUUID().toString();
+                    String token = minter.mint(UUID.randomUUID(), subject, "user@example.com", "USER",
+                            System.currentTimeMillis(), 60_000L, null, null);
+                    if (subject.equals(parser.parseClaimsJws(token).getBody().getSubject())) {
+                        valid++;
+                    }
+                }
+                return valid;
+            }));
+        }
+
+        int valid = 0;
+        for (Future<Integer> future : futures) {
+            valid += future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(valid).isEqualTo(8 * 500);
+    }
+}
@@ -0,0 +1,180 @@
+package org.minh.template.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.JwtToken;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.minh.template.service.auth.TokenRevocationService;
+import org.minh.template.service.auth.impl.AuthServiceImpl;
+import org.minh.template.service.user.UserService;
+import org.minh.template.util.Constants;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Nhiều thread phát hành token cùng lúc với cờ remember me ngẫu nhiên. Mỗi token phải mang đúng thời gian sống
+ * của chính request đó: nếu chính sách bị chia sẻ qua field của singleton, TTL của remember me sẽ lọt sang request khác.
+ */
+class TokenPolicyConcurrencyTest {
+    private static final String SECRET = "c04nKbDFfJ2v0XSRtNKHQQq5Km3zMSZxla7paMSUzBOI/ORhgnTC7eJrqqEZQGKm";
+
+    private static final long TOKEN_EXPIRES_IN = 3_600_000L;
+
+    private static final long REFRESH_TOKEN_EXPIRES_IN = 86_400_000L;
+
+    private static final long REMEMBER_ME_EXPIRES_IN = 604_800_000L;
+
+    private static final int THREADS = 16;
+
+    private static final int ITERATIONS = 500;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private AuthServiceImpl authService;
+
+    private final Queue<JwtToken> saved = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenService jwtTokenService = mock(JwtTokenService.class);
+        when(jwtTokenService.save(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return List.of();
+        });
+        HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+        when(httpServletRequest.getRemoteAddr()).thenReturn("127.0.0.1");
+
+        jwtTokenProvider = new JwtTokenProvider(SECRET, TOKEN_EXPIRES_IN, REFRESH_TOKEN_EXPIRES_IN,
+                REMEMBER_ME_EXPIRES_IN, "session", null, jwtTokenService, null, null);
+        authService = new AuthServiceImpl(mock(UserService.class), jwtTokenService, jwtTokenProvider,
+                httpServletRequest, mock(MessageSourceService.class), mock(TokenRevocationService.class),
+                mock(PasswordHashingService.class), mock(AsyncTaskExecutor.class));
+    }
+
+    @Test
+    void concurrentIssuanceKeepsPerRequestLifetimes() throws Exception {
+        List<String> failures = runConcurrently(() -> {
+            boolean rememberMe = ThreadLocalRandom.current().nextBoolean();
+            TokenPolicy policy = jwtTokenProvider.getTokenPolicy(rememberMe);
+            String id = UUID.randomUUID().toString();
+            String token = jwtTokenProvider.generateJwt(id, "user@example.com", "USER", policy);
+            String refreshToken = jwtTokenProvider.generateRefresh(id, "user@example.com", "USER", token, policy);
+
+            return check(token, refreshToken, rememberMe);
+        });
+
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void concurrentLoginsKeepPerRequestSessionTtl() throws Exception {
+        List<String> failures = runConcurrently(() -> {
+            boolean rememberMe = ThreadLocalRandom.current().nextBoolean();
+            authService.generateTokens(user(), rememberMe);
+
+            return null;
+        });
+
+        assertThat(failures).isEmpty();
+        assertThat(saved).hasSize(THREADS * ITERATIONS);
+        for (JwtToken jwtToken : saved) {
+            boolean rememberMe = Boolean.TRUE.equals(jwtToken.getRememberMe());
+            assertThat(jwtToken.getTokenTimeToLive())
+                    .isEqualTo(rememberMe ? REMEMBER_ME_EXPIRES_IN : REFRESH_TOKEN_EXPIRES_IN);
+            assertThat(check(jwtToken.getToken(), jwtToken.getRefreshToken(), rememberMe)).isNull();
+        }
+    }
+
+    @Test
+    void policiesAreSharedAndImmutable() {
+        assertThat(jwtTokenProvider.getTokenPolicy(true)).isSameAs(jwtTokenProvider.getTokenPolicy(true));
+        assertThat(jwtTokenProvider.getTokenPolicy(false).getRefreshTokenExpiresIn())
+                .isEqualTo(REFRESH_TOKEN_EXPIRES_IN);
+        assertThat(jwtTokenProvider.getRefreshTokenExpiresIn()).isEqualTo(REFRESH_TOKEN_EXPIRES_IN);
+    }
+
+    private String check(final String token, final String refreshToken, final boolean rememberMe) {
+        ParsedToken access = jwtTokenProvider.parseToken(token);
+        ParsedToken refresh = jwtTokenProvider.parseToken(refreshToken);
+        long accessLifetime = lifetime(access);
+        long refreshLifetime = lifetime(refresh);
+        long expectedRefresh = rememberMe ? REMEMBER_ME_EXPIRES_IN : REFRESH_TOKEN_EXPIRES_IN;
+        if (accessLifetime != TOKEN_EXPIRES_IN) {
+            return "access token lifetime " + accessLifetime;
+        }
+        if (refreshLifetime != expectedRefresh) {
+            return "refresh token lifetime " + refreshLifetime + " for rememberMe=" + rememberMe;
+        }
+        if (!Boolean.valueOf(rememberMe).equals(refresh.getClaim(JwtTokenProvider.CLAIM_REMEMBER_ME))) {
+            return "remember me claim " + refresh.getClaim(JwtTokenProvider.CLAIM_REMEMBER_ME);
+        }
+
+        return null;
+    }
+
+    // iat và exp được làm tròn xuống giây nên lấy hiệu rồi làm tròn lại theo giây.
+    private static long lifetime(final ParsedToken parsedToken) {
+        long millis = parsedToken.getExpiration().getTime() - parsedToken.getIssuedAt().getTime();
+
+        return Math.round(millis / 1000.0) * 1000;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        user.setRole(new Role(Constants.RoleEnum.USER));
+
+        return user;
+    }
+
+    private static List<String> runConcurrently(final Callable<String> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<String> failures = new ArrayList<>();
+                for (int j = 0; j < ITERATIONS; j++) {
+                    String failure = task.call();
+                    if (failure != null) {
+                        failures.add(failure);
+                    }
+                }
+                return failures;
+            }));
+        }
+        start.countDown();
+
+        List<String> failures = new ArrayList<>();
+        for (Future<List<String>> future : futures) {
+            failures.addAll(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        return failures;
+    }
+}
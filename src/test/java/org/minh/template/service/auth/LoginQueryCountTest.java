@@ -0,0 +1,158 @@
+package org.minh.template.service.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.minh.template.dto.response.auth.TokenResponse;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.security.JwtTokenProvider;
+import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.impl.AuthServiceImpl;
+import org.minh.template.service.auth.impl.PasswordHashingServiceImpl;
+import org.minh.template.service.role.impl.RoleServiceImpl;
+import org.minh.template.service.user.UserCache;
+import org.minh.template.service.user.UserSearchService;
+import org.minh.template.service.user.impl.TwoTierUserCache;
+import org.minh.template.service.user.impl.UserCountEstimator;
+import org.minh.template.service.user.impl.UserServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Login phải chạy đúng một câu SQL (users JOIN roles). Test này fail nếu có thêm truy vấn nào trên luồng login.
+ * Login đọc user (kèm hash mật khẩu) thẳng từ database, không qua cache user; Redis (L2) được mock và luôn miss.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@ActiveProfiles("test")
+@Import({
+        AuthServiceImpl.class,
+        UserServiceImpl.class,
+        RoleServiceImpl.class,
+        PasswordHashingServiceImpl.class,
+        TwoTierUserCache.class,
+        UserCountEstimator.class,
+        JwtTokenProvider.class,
+        MessageSourceService.class,
+        LoginQueryCountTest.Config.class
+})
+class LoginQueryCountTest {
+    private static final String EMAIL = "user@example.com";
+
+    private static final String PASSWORD = "P@sswd123.";
+
+    @MockitoBean
+    private JwtTokenService jwtTokenService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockitoBean
+    private HttpServletRequest httpServletRequest;
+
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @MockitoBean
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = testEntityManager.persist(new Role(Constants.RoleEnum.USER));
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setName("John");
+        user.setLastName("DOE");
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setRole(role);
+        testEntityManager.persist(user);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        userCache.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void loginExecutesSingleStatement() {
+        TokenResponse tokenResponse = authService.login(EMAIL, PASSWORD, false).join();
+
+        assertThat(tokenResponse.getRole()).isEqualTo(Constants.RoleEnum.USER.getValue());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void loginWithWrongPasswordIsRejected() {
+        assertThatThrownBy(() -> authService.login(EMAIL, "wrong", false).join())
+                .hasCauseInstanceOf(BadCredentialsException.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.minh.template.service.role;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.security.JwtUserDetails;
+import org.minh.template.service.role.impl.RoleServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sau khi nạp bảng tra, findByName không chạy câu SQL nào và principal dùng chung danh sách quyền theo role.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(RoleServiceImpl.class)
+class RoleServiceTest {
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testEntityManager.persist(new Role(Constants.RoleEnum.ADMIN));
+        testEntityManager.persist(new Role(Constants.RoleEnum.USER));
+        testEntityManager.flush();
+        roleService.refresh();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByNameIsServedFromRegistry() {
+        Role first = roleService.findByName(Constants.RoleEnum.USER);
+        Role second = roleService.findByName(Constants.RoleEnum.USER);
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.getName()).isEqualTo(Constants.RoleEnum.USER);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void principalsShareAuthorities() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("user@example.com");
+        user.setRole(roleService.findByName(Constants.RoleEnum.ADMIN));
+
+        JwtUserDetails fromUser = JwtUserDetails.create(user);
+        JwtUserDetails fromClaims = JwtUserDetails.create(UUID.randomUUID().toString(), "a@example.com", "ADMIN");
+
+        assertThat(fromUser.getAuthorities()).isSameAs(fromClaims.getAuthorities());
+        assertThat(fromUser.getAuthorities()).extracting("authority").containsExactly("ADMIN");
+    }
+
+    @Test
+    void roleEnumLookup() {
+        assertThat(Constants.RoleEnum.get("ADMIN")).isEqualTo(Constants.RoleEnum.ADMIN);
+        assertThat(Constants.RoleEnum.get("user")).isEqualTo(Constants.RoleEnum.USER);
+        assertThatThrownBy(() -> Constants.RoleEnum.get("guest")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,191 @@
+package org.minh.template.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.impl.TwoTierUserCache;
+import org.minh.template.util.Constants;
+import org.mockito.Answers;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cập nhật và đọc user song song qua TwoTierUserCache (Redis được mock và luôn miss).
+ * Sau khi evict trả về, mọi lần đọc bắt đầu sau đó phải thấy phiên bản mới nhất, kể cả khi có lần đọc chậm
+ * đang nạp bản cũ từ "database" cùng lúc.
+ */
+class TwoTierUserCacheTest {
+    private static final UUID ID = UUID.randomUUID();
+
+    private static final String EMAIL = "user@example.com";
+
+    // "Database": tên của user mang số phiên bản, ví dụ "v42".
+    private final AtomicReference<String> database = new AtomicReference<>("v0");
+
+    private final AtomicInteger databaseReads = new AtomicInteger();
+
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+
+    private UserRepository userRepository;
+
+    private TwoTierUserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findById(any(UUID.class))).thenAnswer(invocation -> Optional.of(load()));
+        when(userRepository.findByEmail(any(String.class))).thenAnswer(invocation -> Optional.of(load()));
+        userCache = newCache(600_000);
+    }
+
+    @Test
+    void hitsAreServedFromCacheAsDetachedCopies() {
+        User first = userCache.findById(ID);
+        first.setName("changed by caller");
+        User second = userCache.findByEmail(EMAIL);
+        User third = userCache.findById(ID);
+
+        assertThat(third.getName()).isEqualTo("v0");
+        // Hash mật khẩu không được lưu trong cache (và Redis).
+        assertThat(third.getPassword()).isNull();
+        assertThat(second.getRole().getName()).isEqualTo(Constants.RoleEnum.USER);
+        // Một lần đọc cho khóa id, một lần cho khóa email.
+        assertThat(databaseReads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentUpdatesAndReadsNeverServeStaleAfterEviction() throws Exception {
+        int writes = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger committed = new AtomicInteger();
+        List<Future<List<String>>> readers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            readers.add(executor.submit(() -> {
+                List<String> failures = new ArrayList<>();
+                while (!done.get()) {
+                    int before = committed.get();
+                    int seen = version(userCache.findById(ID).getName());
+                    if (seen < before) {
+                        failures.add("read v" + seen + " after v" + before + " was evicted");
+                    }
+                }
+                return failures;
+            }));
+        }
+        Future<?> writer = executor.submit(() -> {
+            for (int v = 1; v <= writes; v++) {
+                database.set("v" + v);
+                userCache.evict(user("v" + v));
+                committed.set(v);
+                Thread.onSpinWait();
+            }
+            done.set(true);
+        });
+
+        writer.get(60, TimeUnit.SECONDS);
+        List<String> failures = new ArrayList<>();
+        for (Future<List<String>> reader : readers) {
+            failures.addAll(reader.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertThat(failures).isEmpty();
+        assertThat(userCache.findById(ID).getName()).isEqualTo("v" + writes);
+        assertThat(userCache.findByEmail(EMAIL).getName()).isEqualTo("v" + writes);
+    }
+
+    @Test
+    void databaseFailureWithoutCachedCopyIsPropagated() {
+        databaseDown.set(true);
+
+        assertThatThrownBy(() -> userCache.findById(ID))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void staleCopyIsServedWhileDatabaseIsDown() throws InterruptedException {
+        TwoTierUserCache refreshingCache = newCache(1);
+        assertThat(refreshingCache.findById(ID).getName()).isEqualTo("v0");
+        databaseDown.set(true);
+        database.set("v1");
+        Thread.sleep(10);
+
+        // Quá refresh-after: trả bản cũ ngay, làm mới chạy nền và thất bại, bản cũ được giữ lại.
+        assertThat(refreshingCache.findById(ID).getName()).isEqualTo("v0");
+        Thread.sleep(50);
+        assertThat(refreshingCache.findById(ID).getName()).isEqualTo("v0");
+
+        databaseDown.set(false);
+        Thread.sleep(10);
+        refreshingCache.findById(ID);
+        Thread.sleep(50);
+        assertThat(refreshingCache.findById(ID).getName()).isEqualTo("v1");
+    }
+
+    private TwoTierUserCache newCache(final long refreshAfter) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        return new TwoTierUserCache(1000, 600_000, refreshAfter, 3_600_000, 300_000, userRepository,
+                mock(StringRedisTemplate.class, Answers.RETURNS_DEEP_STUBS),
+                mock(RedisMessageListenerContainer.class), objectMapper, new SimpleAsyncTaskExecutor("user-cache-"),
+                new SimpleMeterRegistry());
+    }
+
+    private static int version(final String name) {
+        return Integer.parseInt(name.substring(1));
+    }
+
+    private User load() {
+        databaseReads.incrementAndGet();
+        if (databaseDown.get()) {
+            throw new DataAccessResourceFailureException("database is down");
+        }
+        String name = database.get();
+        // Đọc chậm để mở rộng cửa sổ race giữa lần nạp và lần evict.
+        Thread.yield();
+
+        return user(name);
+    }
+
+    private static User user(final String name) {
+        User user = new User();
+        user.setId(ID);
+        user.setEmail(EMAIL);
+        user.setPassword("hash");
+        user.setName(name);
+        user.setLastName("DOE");
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        Role role = new Role(Constants.RoleEnum.USER);
+        role.setId(UUID.randomUUID());
+        user.setRole(role);
+
+        return user;
+    }
+}
@@ -0,0 +1,158 @@
+package org.minh.template.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.service.user.impl.UserExportServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Export 1.000.000 user phải giữ heap không đổi: sau mỗi 100.000 dòng, heap còn giữ lại (đo sau GC) không được
+ * vượt quá mức ban đầu 64MB. Nếu các entity bị giữ lại trong persistence context hoặc response bị gom vào bộ nhớ
+ * thì 1.000.000 entity chiếm vài trăm MB và test fail.
+ * Dữ liệu nằm trong H2 dạng file (cache 16MB) để bảng users không chiếm heap như H2 in-memory.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/user-export;CACHE_SIZE=16384",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@Import({UserExportServiceImpl.class, UserExportTest.Config.class})
+class UserExportTest {
+    private static final int USERS = 1_000_000;
+
+    private static final int SAMPLE_EVERY = 100_000;
+
+    private static final long HEAP_CAP = 64L * 1024 * 1024;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"users\"", Long.class);
+        if (count != null && count == USERS) {
+            return;
+        }
+
+        jdbcTemplate.update("DELETE FROM \"users\"");
+        jdbcTemplate.update("DELETE FROM \"roles\"");
+        UUID roleId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        jdbcTemplate.update("INSERT INTO \"roles\" (\"id\", \"name\", \"created_at\", \"updated_at\") "
+                + "VALUES (?, ?, ?, ?)", roleId, Constants.RoleEnum.USER.name(), start, start);
+
+        // Sinh dữ liệu ngay trong H2 (SYSTEM_RANGE) thay vì gửi 1.000.000 câu INSERT qua JDBC. UUID v7 và số thứ tự
+        // được đệm 0 để các index (id, email, name) được ghi theo thứ tự, tránh đọc/ghi trang ngẫu nhiên trên file.
+        // User đầu tiên (X = 0) có tên cần escape khi ghi CSV.
+        jdbcTemplate.update("INSERT INTO \"users\" (\"id\", \"email\", \"password\", \"name\", \"last_name\", "
+                + "\"birth_date\", \"role_id\", \"created_at\", \"updated_at\") "
+                + "SELECT RANDOM_UUID(7), 'user' || LPAD(X, 7, '0') || '@example.com', 'hash', "
+                + "CASE WHEN X = 0 THEN '=cmd,\"x\"' ELSE 'Name' || LPAD(X, 7, '0') END, 'DOE', "
+                + "DATEADD(SECOND, X, CAST(?1 AS TIMESTAMP)), CAST(?2 AS UUID), DATEADD(SECOND, X, CAST(?1 AS TIMESTAMP)), "
+                + "DATEADD(SECOND, X, CAST(?1 AS TIMESTAMP)) FROM SYSTEM_RANGE(0, ?3)", start, roleId, USERS - 1);
+    }
+
+    @Test
+    void exportMillionUsersWithFlatHeap() throws IOException {
+        HeapSamplingOutputStream outputStream = new HeapSamplingOutputStream();
+
+        long exported = userExportService.export(Constants.ExportFormatEnum.NDJSON, outputStream);
+
+        assertThat(exported).isEqualTo(USERS);
+        assertThat(outputStream.lines).isEqualTo(USERS);
+        assertThat(outputStream.maxGrowth).as("retained heap growth during export").isLessThan(HEAP_CAP);
+    }
+
+    @Test
+    void csvIsEscapedAndClientDisconnectStopsTheExport() {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        OutputStream disconnecting = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                if (received.size() > 0) {
+                    throw new IOException("Broken pipe");
+                }
+                received.write(b, off, len);
+            }
+        };
+
+        assertThatThrownBy(() -> userExportService.export(Constants.ExportFormatEnum.CSV, disconnecting))
+                .isInstanceOf(IOException.class);
+
+        String[] lines = received.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,email,name,lastName,gender,phoneNumber,birthday,role,createdAt,updatedAt");
+        assertThat(lines[1]).contains(",user0000000@example.com,\"'=cmd,\"\"x\"\"\",DOE,,,2020-01-01T00:00,USER,");
+    }
+
+    // Đếm số dòng và đo heap còn giữ lại (sau GC) mỗi SAMPLE_EVERY dòng, so với lúc bắt đầu export.
+    private static final class HeapSamplingOutputStream extends OutputStream {
+        private final long baseline = retainedHeap();
+
+        private long lines;
+
+        private long maxGrowth;
+
+        @Override
+        public void write(final int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxGrowth = Math.max(maxGrowth, retainedHeap() - baseline);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private static long retainedHeap() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
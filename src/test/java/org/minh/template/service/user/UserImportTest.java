@@ -0,0 +1,185 @@
+package org.minh.template.service.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.dto.response.user.ImportUserResponse;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.RoleRepository;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.auth.impl.PasswordHashingServiceImpl;
+import org.minh.template.service.role.RoleService;
+import org.minh.template.service.user.impl.UserImportServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+/**
+ * Import NDJSON: dòng lỗi được báo kèm số dòng và bỏ qua, các dòng hợp lệ vẫn được chèn; khi batch bị database
+ * từ chối (email vừa được đăng ký song song) chỉ dòng bị trùng bị loại.
+ * Chạy ngoài transaction của test để mỗi chunk commit (hoặc rollback) riêng như khi chạy thật.
+ */
+@DataJpaTest(properties = "app.import.chunk-size=3")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@Import({UserImportServiceImpl.class, PasswordHashingServiceImpl.class, UserImportTest.Config.class})
+class UserImportTest {
+    private static final String EXISTING_EMAIL = "existing@example.com";
+
+    private static final String PASSWORD_HASH = new BCryptPasswordEncoder(4).encode("Imported1.");
+
+    @MockitoBean
+    private RoleService roleService;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role(Constants.RoleEnum.USER));
+        when(roleService.findByName(Constants.RoleEnum.USER)).thenReturn(role);
+
+        User user = new User();
+        user.setEmail(EXISTING_EMAIL);
+        user.setPassword("hash");
+        user.setName("John");
+        user.setLastName("DOE");
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setRole(role);
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void invalidRowsAreReportedAndSkipped() throws IOException {
+        ImportUserResponse response = importUsers(
+                row("a@example.com", "\"password\": \"P@sswd123.\""),
+                row("b@example.com", "\"passwordHash\": \"" + PASSWORD_HASH + "\""),
+                row("not-an-email", "\"password\": \"P@sswd123.\""),
+                row("c@example.com", ""),
+                "",
+                row("a@example.com", "\"password\": \"P@sswd123.\""),
+                row(EXISTING_EMAIL, "\"password\": \"P@sswd123.\""),
+                "{not json",
+                "{\"email\": \"d@example.com\", \"birthDate\": \"yesterday\"}",
+                row("e@example.com", "\"password\": \"P@sswd123.\"")
+        );
+
+        assertThat(response.getTotal()).isEqualTo(9);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(6);
+        assertThat(response.getErrors()).extracting(ImportUserResponse.RowError::getLine)
+                .containsExactlyInAnyOrder(3L, 4L, 6L, 7L, 8L, 9L);
+        assertThat(errorOnLine(response, 6)).containsEntry("email", "Duplicate email in file");
+        assertThat(errorOnLine(response, 7)).containsEntry("email", "Email already exists");
+        assertThat(errorOnLine(response, 9)).containsKey("birthDate");
+
+        User hashed = userRepository.findByEmail("a@example.com").orElseThrow();
+        assertThat(passwordEncoder.matches("P@sswd123.", hashed.getPassword())).isTrue();
+        assertThat(hashed.getRole().getName()).isEqualTo(Constants.RoleEnum.USER);
+        assertThat(userRepository.findByEmail("b@example.com").orElseThrow().getPassword()).isEqualTo(PASSWORD_HASH);
+        assertThat(userRepository.findByEmail("e@example.com")).isPresent();
+    }
+
+    @Test
+    void rejectedBatchFallsBackToSingleRows() throws IOException {
+        // Giả lập email được đăng ký ngay sau bước kiểm tra: database từ chối cả batch.
+        doReturn(List.of()).when(userRepository).findExistingEmails(anyCollection());
+
+        ImportUserResponse response = importUsers(
+                row("f@example.com", "\"passwordHash\": \"" + PASSWORD_HASH + "\""),
+                row(EXISTING_EMAIL, "\"passwordHash\": \"" + PASSWORD_HASH + "\""),
+                row("g@example.com", "\"passwordHash\": \"" + PASSWORD_HASH + "\"")
+        );
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(errorOnLine(response, 2)).containsEntry("email", "Email already exists");
+        assertThat(userRepository.findByEmail("f@example.com")).isPresent();
+        assertThat(userRepository.findByEmail("g@example.com")).isPresent();
+    }
+
+    private ImportUserResponse importUsers(final String... lines) throws IOException {
+        byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+
+        return userImportService.importUsers(new ByteArrayInputStream(body));
+    }
+
+    private static String row(final String email, final String password) {
+        return "{\"email\": \"" + email + "\", " + (password.isEmpty() ? "" : password + ", ")
+                + "\"name\": \"Jane\", \"lastName\": \"DOE\", \"birthDate\": \"1990-01-01T00:00:00\"}";
+    }
+
+    private static Map<String, String> errorOnLine(final ImportUserResponse response, final long line) {
+        return response.getErrors().stream().filter(error -> error.getLine() == line).findFirst()
+                .orElseThrow().getItems();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return Jackson2ObjectMapperBuilder.json().build();
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.minh.template.service.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.AbstractBaseEntity;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.PasswordHashingService;
+import org.minh.template.service.auth.TokenRevocationService;
+import org.minh.template.service.role.RoleService;
+import org.minh.template.service.user.impl.UserCountEstimator;
+import org.minh.template.service.user.impl.UserServiceImpl;
+import org.minh.template.util.Constants;
+import org.minh.template.util.KeysetCursor;
+import org.minh.template.util.KeysetPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Duyệt hết danh sách user bằng cursor (tiến rồi lùi) phải cho đúng thứ tự của phân trang offset,
+ * không trùng và không sót, kể cả khi nhiều user có cùng khóa sắp xếp.
+ * Phân trang offset dạng Slice chỉ chạy một câu SQL (không COUNT) và vẫn biết còn trang sau hay không.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@ActiveProfiles("test")
+@Import({UserServiceImpl.class, UserCountEstimator.class, MessageSourceService.class})
+class UserKeysetPagingTest {
+    private static final int USERS = 23;
+
+    private static final int LIMIT = 5;
+
+    @MockitoBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockitoBean
+    private RoleService roleService;
+
+    @MockitoBean
+    private UserCache userCache;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
+
+    @MockitoBean
+    private JwtTokenService jwtTokenService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        Role role = testEntityManager.persist(new Role(Constants.RoleEnum.USER));
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("hash");
+            // Ba user dùng chung một tên để kiểm tra phần phân định bằng id.
+            user.setName(i % 8 == 0 ? "Same" : "Name" + i);
+            user.setLastName("DOE");
+            user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+            user.setRole(role);
+            testEntityManager.persist(user);
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void walkingForwardAndBackwardMatchesOffsetOrder() {
+        for (String sortBy : List.of("createdAt", "email", "name")) {
+            for (String sortType : List.of("asc", "desc")) {
+                Sort.Direction direction = Sort.Direction.fromString(sortType);
+                List<UUID> expected = userRepository.findAll(PageRequest.of(0, USERS,
+                                Sort.by(direction, sortBy).and(Sort.by(direction, "id"))))
+                        .map(AbstractBaseEntity::getId).getContent();
+
+                List<List<UUID>> pages = new ArrayList<>();
+                KeysetPage<User> page = userService.findAll(null, LIMIT, sortType, sortBy);
+                assertThat(page.prevCursor()).isNull();
+                pages.add(ids(page));
+                while (page.nextCursor() != null) {
+                    page = userService.findAll(page.nextCursor(), LIMIT, null, null);
+                    pages.add(ids(page));
+                }
+                assertThat(pages.stream().flatMap(List::stream).toList()).isEqualTo(expected);
+
+                // Lùi từ trang cuối về trang đầu phải gặp lại đúng các trang đã đi qua.
+                for (int i = pages.size() - 2; i >= 0; i--) {
+                    page = userService.findAll(page.prevCursor(), LIMIT, null, null);
+                    assertThat(ids(page)).isEqualTo(pages.get(i));
+                }
+                assertThat(page.prevCursor()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void cursorIsOpaqueAndValidated() {
+        KeysetCursor cursor = new KeysetCursor("email", Sort.Direction.ASC, false, "a\nb@example.com",
+                UUID.randomUUID());
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThatThrownBy(() -> userService.findAll("not-a-cursor", LIMIT, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.findAll(null, LIMIT, "asc", "password"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void oversizedLimitIsClamped() {
+        // limit + 1 không được tràn số, trang trả về bị giới hạn thay vì đọc cả bảng.
+        KeysetPage<User> page = userService.findAll(null, Integer.MAX_VALUE, "asc", "email");
+
+        assertThat(page.limit()).isEqualTo(100);
+        assertThat(page.content()).hasSize(USERS);
+        assertThat(page.nextCursor()).isNull();
+        assertThatThrownBy(() -> userService.findAll(null, 0, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sliceSkipsCountAndReportsHasNext() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Slice<User> first = userService.findSlice(PageRequest.of(0, LIMIT, Sort.by("email")));
+        assertThat(first.getContent()).hasSize(LIMIT);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Slice<User> last = userService.findSlice(PageRequest.of(USERS / LIMIT, LIMIT, Sort.by("email")));
+        assertThat(last.getContent()).hasSize(USERS % LIMIT);
+        assertThat(last.hasNext()).isFalse();
+
+        // H2 không có thống kê của planner nên giá trị ước lượng là COUNT(*) thật.
+        assertThat(userService.estimateCount()).isEqualTo(USERS);
+    }
+
+    private static List<UUID> ids(final KeysetPage<User> page) {
+        return page.content().stream().map(AbstractBaseEntity::getId).toList();
+    }
+}
@@ -0,0 +1,168 @@
+package org.minh.template.service.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.dto.request.auth.RegisterRequest;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.RoleRepository;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.MessageSourceService;
+import org.minh.template.service.auth.JwtTokenService;
+import org.minh.template.service.auth.TokenRevocationService;
+import org.minh.template.service.auth.impl.PasswordHashingServiceImpl;
+import org.minh.template.service.role.RoleService;
+import org.minh.template.service.user.impl.UserCountEstimator;
+import org.minh.template.service.user.impl.UserServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.BindException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Đăng ký dựa vào unique constraint của email: email đã tồn tại trả về BindException (422),
+ * kể cả khi nhiều request cùng email chạy song song (chỉ đúng một request thành công, không có lỗi 500).
+ */
+@DataJpaTest
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@Import({
+        UserServiceImpl.class,
+        UserCountEstimator.class,
+        PasswordHashingServiceImpl.class,
+        MessageSourceService.class,
+        UserRegistrationTest.Config.class
+})
+class UserRegistrationTest {
+    private static final String EMAIL = "user@example.com";
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @MockitoBean
+    private RoleService roleService;
+
+    @MockitoBean
+    private UserCache userCache;
+
+    @MockitoBean
+    private UserSearchService userSearchService;
+
+    @MockitoBean
+    private JwtTokenService jwtTokenService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role(Constants.RoleEnum.USER));
+        when(roleService.findByName(Constants.RoleEnum.USER)).thenReturn(role);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void duplicateEmailIsRejectedWithBindException() throws BindException {
+        User user = userService.register(request());
+
+        User saved = userRepository.findByEmail(EMAIL).orElseThrow();
+        assertThat(saved.getId()).isEqualTo(user.getId());
+        assertThat(saved.getRole().getName()).isEqualTo(Constants.RoleEnum.USER);
+        assertThat(passwordEncoder.matches("P@sswd123.", saved.getPassword())).isTrue();
+
+        assertThatThrownBy(() -> userService.register(request()))
+                .isInstanceOfSatisfying(BindException.class,
+                        e -> assertThat(e.getFieldError("email")).isNotNull());
+    }
+
+    @Test
+    void concurrentRegistrationsOfSameEmailCreateOneUser() {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                    userService.register(request());
+                    return true;
+                } catch (BindException e) {
+                    return false;
+                } catch (InterruptedException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        start.countDown();
+
+        List<Boolean> outcomes = results.stream().map(CompletableFuture::join).toList();
+
+        assertThat(outcomes).containsOnlyOnce(true);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    private static RegisterRequest request() {
+        return RegisterRequest.builder()
+                .email(EMAIL)
+                .password("P@sswd123.")
+                .passwordConfirm("P@sswd123.")
+                .name("John")
+                .lastName("DOE")
+                .birthDate(LocalDateTime.of(2000, 1, 1, 0, 0))
+                .build();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.minh.template.service.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.RoleRepository;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.impl.UserSearchServiceImpl;
+import org.minh.template.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tìm kiếm user trên index Lucene: không phân biệt dấu tiếng Việt (cả dạng dựng sẵn NFC lẫn tổ hợp NFD), tìm theo
+ * phần đầu của từ và của số điện thoại. User lưu qua JPA được index tự động, user chèn bằng JDBC được index qua
+ * UserSearchService.index, và mass indexer dựng lại được index từ database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@Import(UserSearchServiceImpl.class)
+class UserSearchTest {
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Role role;
+
+    @BeforeEach
+    void setUp() {
+        role = roleRepository.save(new Role(Constants.RoleEnum.USER));
+        userRepository.save(user("an.nguyen@example.com", "Văn An", "Nguyễn", "0901 234 567"));
+        userRepository.save(user("duc.le@example.com", Normalizer.normalize("Đức", Normalizer.Form.NFD),
+                Normalizer.normalize("Lê", Normalizer.Form.NFD), "+84 912.345.678"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+        // Xóa hàng loạt bằng JPQL không đi qua entity nên không cập nhật index
+        Search.mapping(entityManagerFactory).scope(User.class).workspace().purge();
+    }
+
+    @Test
+    void searchIgnoresDiacriticsAndMatchesPrefixes() {
+        assertThat(emails("nguyen")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("NGUYỄN")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("nguy")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("duc")).containsExactly("duc.le@example.com");
+        assertThat(emails("Lê Đức")).containsExactly("duc.le@example.com");
+        assertThat(emails("an nguyen")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("an.nguyen@example.com")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("example")).containsExactlyInAnyOrder("an.nguyen@example.com", "duc.le@example.com");
+        assertThat(emails("tran")).isEmpty();
+        assertThat(userSearchService.search("", PageRequest.of(0, 10)).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void searchMatchesPhoneNumberPrefix() {
+        assertThat(emails("0901 234")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("090-123-4567")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("84912")).containsExactly("duc.le@example.com");
+        assertThat(emails("0999")).isEmpty();
+    }
+
+    @Test
+    void jdbcInsertsAreIndexedExplicitlyAndReindexRebuildsTheIndex() {
+        User inserted = user("bich.tran@example.com", "Thị Bích", "Trần", null);
+        inserted.setId(UUID.randomUUID());
+        inserted.setCreatedAt(LocalDateTime.now());
+        inserted.setUpdatedAt(inserted.getCreatedAt());
+        userRepository.insertAll(List.of(inserted));
+        assertThat(emails("tran")).isEmpty();
+
+        userSearchService.index(List.of(inserted));
+        assertThat(emails("tran bich")).containsExactly("bich.tran@example.com");
+
+        Search.mapping(entityManagerFactory).scope(User.class).workspace().purge();
+        assertThat(emails("nguyen")).isEmpty();
+
+        userSearchService.reindex().join();
+        assertThat(emails("nguyen")).containsExactly("an.nguyen@example.com");
+        assertThat(emails("tran")).containsExactly("bich.tran@example.com");
+    }
+
+    private List<String> emails(final String query) {
+        return userSearchService.search(query, PageRequest.of(0, 10)).map(User::getEmail).getContent();
+    }
+
+    private User user(final String email, final String name, final String lastName, final String phoneNumber) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setName(name);
+        user.setLastName(lastName);
+        user.setPhoneNumber(phoneNumber);
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setRole(role);
+
+        return user;
+    }
+}
@@ -0,0 +1,141 @@
+package org.minh.template.service.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minh.template.entity.Role;
+import org.minh.template.entity.User;
+import org.minh.template.repository.RoleRepository;
+import org.minh.template.repository.UserRepository;
+import org.minh.template.service.user.impl.UserTypeaheadServiceImpl;
+import org.minh.template.util.Constants;
+import org.minh.template.util.TypeaheadIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gợi ý theo tiền tố từ bộ nhớ: index chính dựng từ bảng users, các thay đổi sau đó (UserChangedEvent) được gợi ý
+ * ngay và được gộp vào index ở lần dựng kế tiếp; user bị xóa hoặc đổi tên không còn khớp với tên cũ.
+ */
+@DataJpaTest
+@ImportAutoConfiguration(TaskExecutionAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ActiveProfiles("test")
+@Import({UserTypeaheadServiceImpl.class, UserTypeaheadTest.Config.class})
+class UserTypeaheadTest {
+    @Autowired
+    private UserTypeaheadService userTypeaheadService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Role role;
+
+    private User an;
+
+    private User anh;
+
+    private User duc;
+
+    @BeforeEach
+    void setUp() {
+        role = roleRepository.save(new Role(Constants.RoleEnum.USER));
+        an = userRepository.save(user("an.nguyen@example.com", "Văn An", "Nguyễn"));
+        anh = userRepository.save(user("anh.nguyen@example.com", "Thị Anh", "Nguyễn"));
+        duc = userRepository.save(user("duc.le@example.com", Normalizer.normalize("Đức", Normalizer.Form.NFD),
+                Normalizer.normalize("Lê", Normalizer.Form.NFD)));
+        userTypeaheadService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findAll().forEach(user -> applicationEventPublisher.publishEvent(
+                UserChangedEvent.deleted(user.getId())));
+        userRepository.deleteAllInBatch();
+        roleRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void suggestsByNormalizedPrefixInLexicographicOrder() {
+        assertThat(suggest("NGUYỄN", 10)).containsExactly("nguyen thi anh", "nguyen van an");
+        assertThat(suggest("nguyen v", 10)).containsExactly("nguyen van an");
+        assertThat(suggest("le d", 10)).containsExactly("le duc");
+        assertThat(suggest("an", 10)).containsExactly("an.nguyen@example.com", "anh.nguyen@example.com");
+        assertThat(suggest("ngu", 1)).containsExactly("nguyen thi anh");
+        assertThat(suggest("tran", 10)).isEmpty();
+        assertThat(suggest(" ", 10)).isEmpty();
+        assertThat(userTypeaheadService.suggest("nguyen van", 10)).extracting(TypeaheadIndex.Hit::id)
+                .containsExactly(an.getId());
+    }
+
+    @Test
+    void changesAreSuggestedBeforeAndAfterRebuild() {
+        User bich = userRepository.save(user("bich.tran@example.com", "Thị Bích", "Trần"));
+        applicationEventPublisher.publishEvent(UserChangedEvent.saved(bich));
+        anh.setLastName("Phạm");
+        userRepository.save(anh);
+        applicationEventPublisher.publishEvent(UserChangedEvent.saved(anh));
+        userRepository.delete(duc);
+        applicationEventPublisher.publishEvent(UserChangedEvent.deleted(duc.getId()));
+
+        assertThat(suggest("tran", 10)).containsExactly("tran thi bich");
+        assertThat(suggest("nguyen", 10)).containsExactly("nguyen van an");
+        assertThat(suggest("pham", 10)).containsExactly("pham thi anh");
+        assertThat(suggest("an", 10)).containsExactly("an.nguyen@example.com", "anh.nguyen@example.com");
+        assertThat(suggest("le", 10)).isEmpty();
+
+        userTypeaheadService.rebuild();
+
+        assertThat(suggest("tran", 10)).containsExactly("tran thi bich");
+        assertThat(suggest("nguyen", 10)).containsExactly("nguyen van an");
+        assertThat(suggest("pham", 10)).containsExactly("pham thi anh");
+        assertThat(suggest("le", 10)).isEmpty();
+    }
+
+    private List<String> suggest(final String prefix, final int limit) {
+        return userTypeaheadService.suggest(prefix, limit).stream().map(TypeaheadIndex.Hit::text).toList();
+    }
+
+    private User user(final String email, final String name, final String lastName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setName(name);
+        user.setLastName(lastName);
+        user.setBirthDate(LocalDateTime.of(2000, 1, 1, 0, 0));
+        user.setRole(role);
+
+        return user;
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}